@@ -0,0 +1,79 @@
+package com.team.sys_ai.mapper;
+
+import com.team.sys_ai.dto.PrevisionDTO;
+import com.team.sys_ai.dto.StockDTO;
+import com.team.sys_ai.entity.*;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MapStruct mappers on the list sizes returned by the stock and prediction endpoints.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    @Param({ "20", "500" })
+    private int size;
+
+    private final StockMapper stockMapper = Mappers.getMapper(StockMapper.class);
+    private final PrevisionMapper previsionMapper = Mappers.getMapper(PrevisionMapper.class);
+
+    private List<Stock> stocks;
+    private List<Prevision> previsions;
+
+    @Setup
+    public void setUp() {
+        Entrepot entrepot = Entrepot.builder().id(1L).nom("Entrepôt Paris Nord").ville("Paris").build();
+        stocks = new ArrayList<>(size);
+        previsions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Produit produit = Produit.builder().id((long) i + 1).nom("Produit " + i).categorie("Boissons").build();
+            stocks.add(Stock.builder()
+                    .id((long) i + 1)
+                    .produit(produit)
+                    .entrepot(entrepot)
+                    .quantiteDisponible(50 + i % 200)
+                    .seuilAlerte(20 + i % 30)
+                    .lastUpdated(LocalDateTime.now())
+                    .build());
+            previsions.add(Prevision.builder()
+                    .id((long) i + 1)
+                    .produit(produit)
+                    .entrepot(entrepot)
+                    .datePrevision(LocalDate.now())
+                    .quantitePrevue30Jours(100 + i % 50)
+                    .niveauConfiance(85.0)
+                    .recommandation("Stock suffisant. Aucune action immédiate requise.")
+                    .quantiteRecommandee(0)
+                    .niveauRisque(NiveauRisque.FAIBLE)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<StockDTO> stockToDTOList() {
+        return stockMapper.toDTOList(stocks);
+    }
+
+    @Benchmark
+    public PrevisionDTO previsionToDTO() {
+        return previsionMapper.toDTO(previsions.get(0));
+    }
+
+    @Benchmark
+    public List<PrevisionDTO> previsionToDTOList() {
+        return previsionMapper.toDTOList(previsions);
+    }
+}
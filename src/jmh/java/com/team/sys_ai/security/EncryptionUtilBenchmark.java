@@ -0,0 +1,41 @@
+package com.team.sys_ai.security;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AES encryption of the sensitive product columns (prix d'achat, marge), run for each
+ * product read or written through SensitiveDataConverter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EncryptionUtilBenchmark {
+
+    private static final String KEY = "62f5965e9c42c5220c14b6e387387129e199f572e40abeef5df00bef75df6450";
+
+    private EncryptionUtil encryptionUtil;
+    private String value;
+    private String encrypted;
+
+    @Setup
+    public void setUp() {
+        encryptionUtil = new EncryptionUtil(KEY);
+        value = "15.00";
+        encrypted = encryptionUtil.encrypt(value);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return encryptionUtil.encrypt(value);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return encryptionUtil.decrypt(encrypted);
+    }
+}
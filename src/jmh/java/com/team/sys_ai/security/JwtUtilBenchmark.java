@@ -0,0 +1,44 @@
+package com.team.sys_ai.security;
+
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token generation at login and token parsing/validation on every authenticated request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "myTestSecretKeyForJWTWhichMustBeAtLeast256BitsLongForHS256Algorithm";
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 86400000);
+        token = jwtUtil.generateToken(2L, "gest_paris_nord", "GESTIONNAIRE", 1L, 0);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(2L, "gest_paris_nord", "GESTIONNAIRE", 1L, 0);
+    }
+
+    @Benchmark
+    public Claims parseClaims() {
+        return jwtUtil.parseClaims(token);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+}
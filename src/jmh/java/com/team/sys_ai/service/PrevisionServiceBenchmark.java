@@ -0,0 +1,97 @@
+package com.team.sys_ai.service;
+
+import com.team.sys_ai.entity.NiveauRisque;
+import com.team.sys_ai.forecast.CrostonModel;
+import com.team.sys_ai.forecast.ForecastModel;
+import com.team.sys_ai.forecast.HoltWintersModel;
+import com.team.sys_ai.forecast.WeightedAverageModel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-product calculations of a prediction: the forecast of the sales (one per model,
+ * over the default 90-day history) and the rules applied to it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrevisionServiceBenchmark {
+
+    private static final int HISTORY_DAYS = 90;
+    private static final int HORIZON_DAYS = 30;
+
+    private final ForecastModel weightedAverage = new WeightedAverageModel();
+    private final ForecastModel holtWinters = new HoltWintersModel();
+    private final ForecastModel croston = new CrostonModel();
+
+    // Daily quantities of a product selling on about 70% of the days, as in the sample data
+    private int[] ventes;
+    private int[] stocks;
+    private int[] previsions;
+    private int[] seuils;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        ventes = new int[HISTORY_DAYS];
+        for (int day = 0; day < HISTORY_DAYS; day++) {
+            ventes[day] = random.nextDouble() < 0.3 ? 0 : 5 + random.nextInt(10);
+        }
+        // Inputs covering every risk level
+        stocks = new int[1024];
+        previsions = new int[stocks.length];
+        seuils = new int[stocks.length];
+        for (int i = 0; i < stocks.length; i++) {
+            stocks[i] = random.nextInt(300);
+            previsions[i] = random.nextInt(400);
+            seuils[i] = 20 + random.nextInt(30);
+        }
+    }
+
+    @Benchmark
+    public double forecastWeightedAverage() {
+        return weightedAverage.forecast(ventes, HISTORY_DAYS, 0, HORIZON_DAYS);
+    }
+
+    @Benchmark
+    public double forecastHoltWinters() {
+        return holtWinters.forecast(ventes, HISTORY_DAYS, 0, HORIZON_DAYS);
+    }
+
+    @Benchmark
+    public double forecastCroston() {
+        return croston.forecast(ventes, HISTORY_DAYS, 0, HORIZON_DAYS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public void calculateRiskLevel(Blackhole blackhole) {
+        for (int i = 0; i < stocks.length; i++) {
+            blackhole.consume(PrevisionService.calculateRiskLevel(stocks[i], previsions[i], seuils[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public void calculateRecommendedQuantity(Blackhole blackhole) {
+        for (int i = 0; i < stocks.length; i++) {
+            blackhole.consume(PrevisionService.calculateRecommendedQuantity(stocks[i], previsions[i], seuils[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public void generateFallbackRecommendation(Blackhole blackhole) {
+        for (int i = 0; i < stocks.length; i++) {
+            NiveauRisque risque = PrevisionService.calculateRiskLevel(stocks[i], previsions[i], seuils[i]);
+            blackhole.consume(PrevisionService.generateFallbackRecommendation(
+                    stocks[i], previsions[i], seuils[i], risque));
+        }
+    }
+}
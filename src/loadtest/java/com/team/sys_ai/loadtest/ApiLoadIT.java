@@ -0,0 +1,306 @@
+package com.team.sys_ai.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.team.sys_ai.entity.Entrepot;
+import com.team.sys_ai.entity.Produit;
+import com.team.sys_ai.loadtest.LatencySamples.Summary;
+import com.team.sys_ai.repository.EntrepotRepository;
+import com.team.sys_ai.repository.ProduitRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load test: boots the application (dev profile, H2 unless spring.datasource.*
+ * points elsewhere) seeded with the app.data.* dataset, then drives a mix of stock reads,
+ * sales, restocking and prediction generation from concurrent clients over HTTP.
+ * Latency percentiles and throughput per scenario are written to the report and checked
+ * against the SLOs and the optional baseline report; the build fails on a violation.
+ * Settings: src/loadtest/resources/loadtest.properties.
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "logging.level.com.team.sys_ai=INFO",
+        "logging.level.org.hibernate.SQL=INFO"
+})
+@ActiveProfiles("dev")
+class ApiLoadIT {
+
+    private static final LoadTestSettings SETTINGS = LoadTestSettings.load();
+
+    /**
+     * Operations of the mix, named as in the settings (loadtest.mix.*, loadtest.slo.*).
+     */
+    enum Scenario {
+        STOCKS("stocks.list"),
+        VENTE("historique.vente"),
+        REAPPRO("stocks.reappro"),
+        GENERATE_ALL("previsions.generate-all");
+
+        private final String key;
+
+        Scenario(String key) {
+            this.key = key;
+        }
+    }
+
+    @DynamicPropertySource
+    static void dataset(DynamicPropertyRegistry registry) {
+        SETTINGS.withPrefix("app.data.").forEach((key, value) -> registry.add(key, () -> value));
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EntrepotRepository entrepotRepository;
+
+    @Autowired
+    private ProduitRepository produitRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final Duration requestTimeout = SETTINGS.getDuration("loadtest.request-timeout", Duration.ofSeconds(60));
+
+    private String token;
+    private List<Long> entrepotIds;
+    private List<Long> produitIds;
+
+    @Test
+    void apiMeetsLatencySlo() throws Exception {
+        int clients = SETTINGS.getInt("loadtest.clients", 32);
+        Duration warmup = SETTINGS.getDuration("loadtest.warmup", Duration.ofSeconds(15));
+        Duration duration = SETTINGS.getDuration("loadtest.duration", Duration.ofSeconds(60));
+
+        token = login(SETTINGS.get("loadtest.login", "admin"), SETTINGS.get("loadtest.password", "admin123"));
+        entrepotIds = entrepotRepository.findByActifTrue().stream().map(Entrepot::getId).toList();
+        produitIds = produitRepository.findByActifTrue().stream().map(Produit::getId).toList();
+
+        log.info("Load test: {} clients, {} warm-up, {} measured, {} warehouses x {} products",
+                clients, warmup, duration, entrepotIds.size(), produitIds.size());
+        Map<Scenario, LatencySamples> samples = run(clients, warmup, duration);
+
+        Map<String, Summary> summaries = new LinkedHashMap<>();
+        samples.forEach((scenario, values) -> summaries.put(scenario.key, values.summarize(duration)));
+        List<String> violations = checkSlo(summaries);
+        writeReport(clients, duration, summaries, violations);
+
+        assertThat(violations).as("SLO violations").isEmpty();
+    }
+
+    private Map<Scenario, LatencySamples> run(int clients, Duration warmup, Duration duration) throws Exception {
+        Scenario[] mix = mix();
+        long measureStart = System.nanoTime() + warmup.toNanos();
+        long measureEnd = measureStart + duration.toNanos();
+        long seed = SETTINGS.getInt("loadtest.seed", 42);
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<Map<Scenario, LatencySamples>>> futures = new ArrayList<>();
+            for (int client = 0; client < clients; client++) {
+                SplittableRandom random = new SplittableRandom(seed + client);
+                futures.add(executor.submit(() -> runClient(mix, random, measureStart, measureEnd)));
+            }
+            Map<Scenario, LatencySamples> merged = new EnumMap<>(Scenario.class);
+            for (Future<Map<Scenario, LatencySamples>> future : futures) {
+                future.get().forEach((scenario, values) ->
+                        merged.computeIfAbsent(scenario, s -> new LatencySamples()).addAll(values));
+            }
+            return merged;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Closed-loop client: sends the next request as soon as the previous one answered.
+     * Only requests started within the measured period are recorded.
+     */
+    private Map<Scenario, LatencySamples> runClient(Scenario[] mix, SplittableRandom random,
+            long measureStart, long measureEnd) throws InterruptedException {
+        Map<Scenario, LatencySamples> samples = new EnumMap<>(Scenario.class);
+        long start;
+        while ((start = System.nanoTime()) < measureEnd) {
+            Scenario scenario = mix[random.nextInt(mix.length)];
+            HttpRequest request = buildRequest(scenario, random);
+            boolean error;
+            try {
+                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                error = response.statusCode() >= 400;
+                if (error) {
+                    log.debug("{} {} -> {} {}", request.method(), request.uri(), response.statusCode(), response.body());
+                }
+            } catch (IOException e) {
+                log.debug("{} {} failed: {}", request.method(), request.uri(), e.getMessage());
+                error = true;
+            }
+            long latency = System.nanoTime() - start;
+            if (start >= measureStart) {
+                samples.computeIfAbsent(scenario, s -> new LatencySamples()).record(latency, error);
+            }
+        }
+        return samples;
+    }
+
+    private HttpRequest buildRequest(Scenario scenario, SplittableRandom random) {
+        long entrepotId = entrepotIds.get(random.nextInt(entrepotIds.size()));
+        long produitId = produitIds.get(random.nextInt(produitIds.size()));
+        return switch (scenario) {
+            case STOCKS -> request("/api/stocks/entrepot/" + entrepotId
+                    + "?page=" + random.nextInt(Math.max(produitIds.size() / 20, 1)) + "&size=20")
+                    .GET().build();
+            case VENTE -> request("/api/historique/entrepot/" + entrepotId + "/produit/" + produitId
+                    + "?quantite=" + (1 + random.nextInt(3)))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build();
+            // Restocks more than the sales take on average, so that sales are not refused
+            case REAPPRO -> request("/api/stocks/entrepot/" + entrepotId + "/produit/" + produitId
+                    + "/add?quantite=100")
+                    .method("PATCH", HttpRequest.BodyPublishers.noBody()).build();
+            case GENERATE_ALL -> request("/api/previsions/entrepot/" + entrepotId + "/generate-all")
+                    .POST(HttpRequest.BodyPublishers.noBody()).build();
+        };
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(requestTimeout)
+                .header("Authorization", "Bearer " + token);
+    }
+
+    private String login(String login, String password) throws IOException, InterruptedException {
+        String body = objectMapper.writeValueAsString(Map.of("login", login, "password", password));
+        HttpResponse<String> response = httpClient.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).as("login of %s", login).isEqualTo(200);
+        return objectMapper.readTree(response.body()).path("token").asText();
+    }
+
+    /**
+     * Scenarios repeated according to their weight (loadtest.mix.*), picked at random.
+     */
+    private static Scenario[] mix() {
+        List<Scenario> mix = new ArrayList<>();
+        for (Scenario scenario : Scenario.values()) {
+            int weight = SETTINGS.getInt("loadtest.mix." + scenario.key, 0);
+            for (int i = 0; i < weight; i++) {
+                mix.add(scenario);
+            }
+        }
+        assertThat(mix).as("loadtest.mix.* weights").isNotEmpty();
+        return mix.toArray(Scenario[]::new);
+    }
+
+    private List<String> checkSlo(Map<String, Summary> summaries) throws IOException {
+        List<String> violations = new ArrayList<>();
+        double maxErrorRate = SETTINGS.getDouble("loadtest.slo.max-error-rate", 0.01);
+        JsonNode baseline = readBaseline();
+        double tolerance = SETTINGS.getDouble("loadtest.baseline.tolerance", 0.25);
+
+        summaries.forEach((name, summary) -> {
+            checkMax(violations, name, "p50", summary.p50Ms(), SETTINGS.getDouble("loadtest.slo." + name + ".p50", 0));
+            checkMax(violations, name, "p95", summary.p95Ms(), SETTINGS.getDouble("loadtest.slo." + name + ".p95", 0));
+            checkMax(violations, name, "p99", summary.p99Ms(), SETTINGS.getDouble("loadtest.slo." + name + ".p99", 0));
+            if (summary.errorRate() > maxErrorRate) {
+                violations.add("%s error rate %.4f > %.4f".formatted(name, summary.errorRate(), maxErrorRate));
+            }
+            double minThroughput = SETTINGS.getDouble("loadtest.slo." + name + ".min-throughput", 0);
+            if (summary.throughput() < minThroughput) {
+                violations.add("%s throughput %.2f req/s < %.2f req/s".formatted(name, summary.throughput(), minThroughput));
+            }
+            if (baseline != null) {
+                JsonNode previous = baseline.path("scenarios").path(name);
+                checkRegression(violations, name, "p95", summary.p95Ms(), previous.path("p95Ms").asDouble(0), tolerance);
+                checkRegression(violations, name, "p99", summary.p99Ms(), previous.path("p99Ms").asDouble(0), tolerance);
+            }
+        });
+        return violations;
+    }
+
+    private static void checkMax(List<String> violations, String name, String percentile, double valueMs, double maxMs) {
+        if (maxMs > 0 && valueMs > maxMs) {
+            violations.add("%s %s %.2f ms > SLO %.2f ms".formatted(name, percentile, valueMs, maxMs));
+        }
+    }
+
+    private static void checkRegression(List<String> violations, String name, String percentile,
+            double valueMs, double baselineMs, double tolerance) {
+        if (baselineMs > 0 && valueMs > baselineMs * (1 + tolerance)) {
+            violations.add("%s %s %.2f ms > baseline %.2f ms + %.0f%%"
+                    .formatted(name, percentile, valueMs, baselineMs, tolerance * 100));
+        }
+    }
+
+    private JsonNode readBaseline() throws IOException {
+        String baseline = SETTINGS.get("loadtest.baseline", null);
+        if (baseline == null) {
+            return null;
+        }
+        Path path = Path.of(baseline);
+        if (!Files.exists(path)) {
+            log.warn("Baseline report {} not found, only the SLOs are checked", path);
+            return null;
+        }
+        return objectMapper.readTree(path.toFile());
+    }
+
+    private void writeReport(int clients, Duration duration, Map<String, Summary> summaries,
+            List<String> violations) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("date", Instant.now().toString());
+        report.put("clients", clients);
+        report.put("durationSeconds", duration.toSeconds());
+        report.put("entrepots", entrepotIds.size());
+        report.put("produits", produitIds.size());
+        report.put("settings", SETTINGS.withPrefix(""));
+        report.put("scenarios", summaries);
+        report.put("violations", violations);
+
+        Path path = Path.of(SETTINGS.get("loadtest.report", "target/loadtest-report.json"));
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), report);
+
+        StringBuilder table = new StringBuilder(String.format("%n%-26s %9s %7s %9s %9s %9s %9s %9s",
+                "scenario", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        summaries.forEach((name, s) -> table.append(String.format("%n%-26s %9d %7d %9.2f %9.2f %9.2f %9.2f %9.2f",
+                name, s.requests(), s.errors(), s.throughput(), s.p50Ms(), s.p95Ms(), s.p99Ms(), s.maxMs())));
+        log.info("Load test results (report: {}):{}", path.toAbsolutePath(), table);
+        violations.forEach(violation -> log.warn("SLO violation: {}", violation));
+    }
+}
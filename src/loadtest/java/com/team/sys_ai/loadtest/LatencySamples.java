@@ -0,0 +1,70 @@
+package com.team.sys_ai.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Latencies (nanoseconds) and errors of one scenario. Each client fills its own
+ * instance; they are merged once the run is over.
+ */
+final class LatencySamples {
+
+    private long[] latencies = new long[1024];
+    private int size;
+    private long errors;
+
+    void record(long latencyNanos, boolean error) {
+        if (size == latencies.length) {
+            latencies = Arrays.copyOf(latencies, size * 2);
+        }
+        latencies[size++] = latencyNanos;
+        if (error) {
+            errors++;
+        }
+    }
+
+    void addAll(LatencySamples other) {
+        if (size + other.size > latencies.length) {
+            latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, size + other.size));
+        }
+        System.arraycopy(other.latencies, 0, latencies, size, other.size);
+        size += other.size;
+        errors += other.errors;
+    }
+
+    /**
+     * Statistics of the samples over the measured period; latencies in milliseconds.
+     */
+    Summary summarize(Duration period) {
+        long[] sorted = Arrays.copyOf(latencies, size);
+        Arrays.sort(sorted);
+        double seconds = period.toNanos() / 1e9;
+        return new Summary(
+                size,
+                errors,
+                size == 0 ? 0 : (double) errors / size,
+                round(size / seconds),
+                size == 0 ? 0 : round(Arrays.stream(sorted).average().orElse(0) / 1e6),
+                percentile(sorted, 50),
+                percentile(sorted, 95),
+                percentile(sorted, 99),
+                size == 0 ? 0 : round(sorted[size - 1] / 1e6));
+    }
+
+    // Nearest-rank percentile
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return round(sorted[Math.max(rank - 1, 0)] / 1e6);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    record Summary(long requests, long errors, double errorRate, double throughput,
+            double meanMs, double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+    }
+}
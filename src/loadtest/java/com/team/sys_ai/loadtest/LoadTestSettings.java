@@ -0,0 +1,74 @@
+package com.team.sys_ai.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Settings of the load test: loadtest.properties, overridden by the system properties
+ * (e.g. -Dloadtest.clients=64 on the Maven command line).
+ */
+final class LoadTestSettings {
+
+    private static final String RESOURCE = "loadtest.properties";
+
+    private final Properties properties = new Properties();
+
+    private LoadTestSettings() {
+    }
+
+    static LoadTestSettings load() {
+        LoadTestSettings settings = new LoadTestSettings();
+        try (InputStream in = LoadTestSettings.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (in != null) {
+                settings.properties.load(in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + RESOURCE, e);
+        }
+        System.getProperties().forEach((key, value) -> {
+            String name = key.toString();
+            if (name.startsWith("loadtest.") || name.startsWith("app.data.")) {
+                settings.properties.setProperty(name, value.toString());
+            }
+        });
+        return settings;
+    }
+
+    String get(String key, String defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    double getDouble(String key, double defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    Duration getDuration(String key, Duration defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : DurationStyle.detectAndParse(value);
+    }
+
+    /**
+     * Settings whose key starts with the prefix, sorted by key.
+     */
+    Map<String, String> withPrefix(String prefix) {
+        Map<String, String> result = new TreeMap<>();
+        properties.stringPropertyNames().stream()
+                .filter(name -> name.startsWith(prefix))
+                .forEach(name -> result.put(name, properties.getProperty(name).trim()));
+        return result;
+    }
+}
@@ -0,0 +1,91 @@
+package com.team.sys_ai.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.CacheSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hibernate second-level cache of the reference data (products, warehouses and their
+ * list queries such as the categories), kept in bounded Caffeine caches.
+ * Hibernate evicts the entries of an entity on every write made through JPA
+ * (create, update, deactivate, delete); cached query results are dropped as soon as
+ * one of their tables is written. The time to live bounds the staleness of entries
+ * changed by another application instance.
+ */
+@Configuration
+public class CacheConfig {
+
+    // Regions of the cached entities (@Cache on Produit and Entrepot)
+    public static final String PRODUITS = "produits";
+    public static final String ENTREPOTS = "entrepots";
+
+    // Default region names of Hibernate's query cache
+    private static final String QUERY_RESULTS = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+    private static final String UPDATE_TIMESTAMPS = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    // One cache manager per application context (tests start several)
+    private static final AtomicInteger MANAGERS = new AtomicInteger();
+
+    /**
+     * Cache manager holding one cache per region. Hibernate fails on a region
+     * that is not created here, so that no cache is left unbounded.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${app.cache.produits.max-size:10000}") long produitsMaxSize,
+            @Value("${app.cache.entrepots.max-size:1000}") long entrepotsMaxSize,
+            @Value("${app.cache.queries.max-size:1000}") long queriesMaxSize,
+            @Value("${app.cache.ttl:10m}") Duration ttl,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager(
+                URI.create("hibernate" + MANAGERS.incrementAndGet()), getClass().getClassLoader());
+        createCache(cacheManager, PRODUITS, produitsMaxSize, ttl, meterRegistry);
+        createCache(cacheManager, ENTREPOTS, entrepotsMaxSize, ttl, meterRegistry);
+        createCache(cacheManager, QUERY_RESULTS, queriesMaxSize, ttl, meterRegistry);
+        // Last write time per table: tiny, and must never be evicted before the query results
+        createCache(cacheManager, UPDATE_TIMESTAMPS, 0, null, meterRegistry);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(CacheSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(CacheSettings.USE_QUERY_CACHE, true);
+            properties.put(CacheSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private void createCache(CacheManager cacheManager, String name, long maxSize, Duration ttl,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        if (maxSize > 0) {
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+        }
+        if (ttl != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.NANOSECONDS.convert(ttl)));
+        }
+        configuration.setStatisticsEnabled(true);
+        Cache<Object, Object> cache = cacheManager.createCache(name, configuration);
+        meterRegistry.ifAvailable(registry -> JCacheMetrics.monitor(registry, cache));
+    }
+}
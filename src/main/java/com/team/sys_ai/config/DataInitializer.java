@@ -4,20 +4,23 @@ import com.team.sys_ai.entity.*;
 import com.team.sys_ai.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
+import java.math.RoundingMode;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Initializes the database with comprehensive sample data for
  * development/testing.
  * Includes: 5 warehouses, 30+ products, stocks, and 90 days of sales history.
+ * Larger datasets (app.data.*) add synthetic warehouses and products; stocks and
+ * sales are written in bulk by SampleDataGenerator.
  * Only runs when the database is empty.
  */
 @Component
@@ -28,14 +31,26 @@ public class DataInitializer implements CommandLineRunner {
         private final UserRepository userRepository;
         private final EntrepotRepository entrepotRepository;
         private final ProduitRepository produitRepository;
-        private final StockRepository stockRepository;
-        private final HistoriqueVenteRepository historiqueVenteRepository;
+        private final SampleDataGenerator sampleDataGenerator;
         private final PasswordEncoder passwordEncoder;
+        private final PlatformTransactionManager transactionManager;
 
-        private final Random random = new Random(42); // Seed for reproducibility
+        @Value("${app.data.entrepots:5}")
+        private int entrepotCount;
+
+        @Value("${app.data.produits:37}")
+        private int produitCount;
+
+        @Value("${app.data.seed:42}")
+        private long seed;
+
+        private static final String[] VILLES = { "Paris", "Lyon", "Marseille", "Bordeaux", "Lille",
+                        "Toulouse", "Nantes", "Strasbourg", "Rennes", "Nice" };
+
+        private record ReferenceData(List<Entrepot> entrepots, List<Produit> produits) {
+        }
 
         @Override
-        @Transactional
         public void run(String... args) {
                 if (userRepository.count() > 0) {
                         log.info("Database already initialized. Skipping data initialization.");
@@ -43,23 +58,30 @@ public class DataInitializer implements CommandLineRunner {
                 }
 
                 log.info("🚀 Starting comprehensive data initialization...");
-
-                // Create Warehouses
-                List<Entrepot> entrepots = createEntrepots();
-
-                // Create Products
-                List<Produit> produits = createProduits();
-
-                // Create Users
-                createUsers(entrepots);
-
-                // Create Stocks for each warehouse
-                createStocks(entrepots, produits);
-
-                // Create 90 days of sales history for AI predictions
-                createSalesHistory(entrepots, produits);
-
-                printSummary(entrepots, produits);
+                long start = System.currentTimeMillis();
+
+                // Reference data in one transaction, committed before the parallel bulk load
+                ReferenceData reference = new TransactionTemplate(transactionManager).execute(status -> {
+                        // Create Warehouses
+                        List<Entrepot> entrepots = createEntrepots();
+
+                        // Create Products
+                        List<Produit> produits = createProduits();
+
+                        // Create Users
+                        createUsers(entrepots);
+                        return new ReferenceData(entrepots, produits);
+                });
+                List<Entrepot> entrepots = reference.entrepots();
+                List<Produit> produits = reference.produits();
+
+                // Create Stocks and sales history for AI predictions
+                log.info("📊 Creating stocks and {} days of sales history...", sampleDataGenerator.getDays());
+                SampleDataGenerator.Result result = sampleDataGenerator.generate(entrepots, produits);
+                log.info("✅ Created {} stock entries and {} sales records in {} ms",
+                                result.stocks(), result.ventes(), System.currentTimeMillis() - start);
+
+                printSummary(entrepots, produits, result);
         }
 
         private List<Entrepot> createEntrepots() {
@@ -73,7 +95,14 @@ public class DataInitializer implements CommandLineRunner {
                 entrepots.add(createEntrepot("Entrepôt Marseille", "120 Quai du Port", "Marseille", "13002"));
                 entrepots.add(createEntrepot("Entrepôt Bordeaux", "55 Rue des Vignobles", "Bordeaux", "33000"));
 
-                return entrepots;
+                // Synthetic warehouses beyond the named ones (load-test datasets)
+                for (int i = entrepots.size(); i < entrepotCount; i++) {
+                        String ville = VILLES[i % VILLES.length];
+                        entrepots.add(createEntrepot(String.format("Entrepôt %s %04d", ville, i + 1),
+                                        (i + 1) + " Zone Logistique", ville, String.format("%05d", 10000 + i)));
+                }
+
+                return entrepotRepository.saveAll(entrepots.subList(0, Math.min(entrepotCount, entrepots.size())));
         }
 
         private List<Produit> createProduits() {
@@ -168,6 +197,20 @@ public class DataInitializer implements CommandLineRunner {
                 produits.add(createProduit("Éponges", "Lot de 3 éponges", "Entretien",
                                 new BigDecimal("2.50"), new BigDecimal("1.00"), Unite.UNITE));
 
+                // Synthetic products beyond the catalogue, spread over its categories
+                Random random = new Random(seed);
+                int catalogueSize = produits.size();
+                for (int i = catalogueSize; i < produitCount; i++) {
+                        Produit modele = produits.get(i % catalogueSize);
+                        BigDecimal prixAchat = BigDecimal.valueOf(0.5 + random.nextDouble() * 20)
+                                        .setScale(2, RoundingMode.HALF_UP);
+                        BigDecimal prixVente = prixAchat.multiply(BigDecimal.valueOf(1.2 + random.nextDouble()))
+                                        .setScale(2, RoundingMode.HALF_UP);
+                        produits.add(createProduit(String.format("Produit %06d", i + 1), "Produit synthétique",
+                                        modele.getCategorie(), prixVente, prixAchat, modele.getUnite()));
+                }
+
+                produits = produitRepository.saveAll(produits.subList(0, Math.min(produitCount, produits.size())));
                 log.info("✅ Created {} products", produits.size());
                 return produits;
         }
@@ -178,107 +221,19 @@ public class DataInitializer implements CommandLineRunner {
                 // 1 Admin
                 createUser("admin", "admin123", "Admin", "Super", "admin@sysai.com", Role.ADMIN, null);
 
-                // 1 Gestionnaire per warehouse
-                createUser("gest_paris_nord", "gest123", "Dupont", "Pierre", "pierre.dupont@sysai.com",
-                                Role.GESTIONNAIRE, entrepots.get(0));
-                createUser("gest_paris_sud", "gest123", "Martin", "Marie", "marie.martin@sysai.com",
-                                Role.GESTIONNAIRE, entrepots.get(1));
-                createUser("gest_lyon", "gest123", "Bernard", "Jean", "jean.bernard@sysai.com",
-                                Role.GESTIONNAIRE, entrepots.get(2));
-                createUser("gest_marseille", "gest123", "Petit", "Sophie", "sophie.petit@sysai.com",
-                                Role.GESTIONNAIRE, entrepots.get(3));
-                createUser("gest_bordeaux", "gest123", "Durand", "Luc", "luc.durand@sysai.com",
-                                Role.GESTIONNAIRE, entrepots.get(4));
-        }
-
-        private void createStocks(List<Entrepot> entrepots, List<Produit> produits) {
-                log.info("📊 Creating stocks...");
-
-                int stockCount = 0;
-
-                for (Entrepot entrepot : entrepots) {
-                        for (Produit produit : produits) {
-                                // Generate varied stock levels for interesting AI predictions
-                                int baseQuantity = 50 + random.nextInt(200);
-                                int seuilAlerte = 20 + random.nextInt(30);
-
-                                // Make some stocks critically low for testing
-                                if (random.nextDouble() < 0.15) {
-                                        baseQuantity = seuilAlerte / 2; // Critical
-                                } else if (random.nextDouble() < 0.25) {
-                                        baseQuantity = seuilAlerte + random.nextInt(10); // Near alert
-                                }
-
-                                Stock stock = Stock.builder()
-                                                .produit(produit)
-                                                .entrepot(entrepot)
-                                                .quantiteDisponible(baseQuantity)
-                                                .seuilAlerte(seuilAlerte)
-                                                .build();
-                                stockRepository.save(stock);
-                                stockCount++;
-                        }
-                }
-
-                log.info("✅ Created {} stock entries", stockCount);
-        }
-
-        private void createSalesHistory(List<Entrepot> entrepots, List<Produit> produits) {
-                log.info("📈 Creating 90 days of sales history for AI predictions...");
-
-                LocalDate today = LocalDate.now();
-                int salesCount = 0;
-
-                for (Entrepot entrepot : entrepots) {
-                        for (Produit produit : produits) {
-                                // Generate sales for past 90 days
-                                for (int daysBack = 90; daysBack >= 1; daysBack--) {
-                                        LocalDate saleDate = today.minusDays(daysBack);
-
-                                        // Skip some days randomly (not every product sells every day)
-                                        if (random.nextDouble() < 0.3)
-                                                continue;
-
-                                        // Generate realistic sales pattern
-                                        int baseSales = getBaseSalesForProduct(produit);
-
-                                        // Weekend boost for consumer products
-                                        if (saleDate.getDayOfWeek().getValue() >= 6) {
-                                                baseSales = (int) (baseSales * 1.3);
-                                        }
-
-                                        // Add some randomness
-                                        int quantity = Math.max(1,
-                                                        baseSales + random.nextInt(baseSales / 2 + 1) - baseSales / 4);
-
-                                        HistoriqueVente vente = HistoriqueVente.builder()
-                                                        .produit(produit)
-                                                        .entrepot(entrepot)
-                                                        .dateVente(saleDate)
-                                                        .quantiteVendue(quantity)
-                                                        .build();
-                                        historiqueVenteRepository.save(vente);
-                                        salesCount++;
-                                }
-                        }
-                }
-
-                log.info("✅ Created {} sales records", salesCount);
-        }
-
-        private int getBaseSalesForProduct(Produit produit) {
-                // Different products have different sales volumes
-                String categorie = produit.getCategorie();
-
-                return switch (categorie) {
-                        case "Boissons" -> 8 + random.nextInt(10);
-                        case "Alimentaire" -> 5 + random.nextInt(8);
-                        case "Produits Laitiers" -> 10 + random.nextInt(15);
-                        case "Conserves" -> 3 + random.nextInt(5);
-                        case "Hygiène" -> 4 + random.nextInt(6);
-                        case "Entretien" -> 2 + random.nextInt(4);
-                        default -> 5 + random.nextInt(5);
+                // 1 Gestionnaire per named warehouse
+                String[][] gestionnaires = {
+                                { "gest_paris_nord", "Dupont", "Pierre", "pierre.dupont@sysai.com" },
+                                { "gest_paris_sud", "Martin", "Marie", "marie.martin@sysai.com" },
+                                { "gest_lyon", "Bernard", "Jean", "jean.bernard@sysai.com" },
+                                { "gest_marseille", "Petit", "Sophie", "sophie.petit@sysai.com" },
+                                { "gest_bordeaux", "Durand", "Luc", "luc.durand@sysai.com" }
                 };
+                for (int i = 0; i < Math.min(gestionnaires.length, entrepots.size()); i++) {
+                        String[] gestionnaire = gestionnaires[i];
+                        createUser(gestionnaire[0], "gest123", gestionnaire[1], gestionnaire[2], gestionnaire[3],
+                                        Role.GESTIONNAIRE, entrepots.get(i));
+                }
         }
 
         private Entrepot createEntrepot(String nom, String adresse, String ville, String codePostal) {
@@ -289,7 +244,7 @@ public class DataInitializer implements CommandLineRunner {
                                 .codePostal(codePostal)
                                 .actif(true)
                                 .build();
-                return entrepotRepository.save(entrepot);
+                return entrepot;
         }
 
         private Produit createProduit(String nom, String description, String categorie,
@@ -305,7 +260,7 @@ public class DataInitializer implements CommandLineRunner {
                                 .build();
                 produit.setPrixAchatValue(prixAchat);
                 produit.setMargeValue(prixVente.subtract(prixAchat));
-                return produitRepository.save(produit);
+                return produit;
         }
 
         private User createUser(String login, String password, String nom, String prenom,
@@ -323,16 +278,20 @@ public class DataInitializer implements CommandLineRunner {
                 return userRepository.save(user);
         }
 
-        private void printSummary(List<Entrepot> entrepots, List<Produit> produits) {
+        private void printSummary(List<Entrepot> entrepots, List<Produit> produits,
+                        SampleDataGenerator.Result result) {
                 log.info("");
                 log.info("═══════════════════════════════════════════════════════════════");
                 log.info("✅ DATABASE INITIALIZATION COMPLETED!");
                 log.info("═══════════════════════════════════════════════════════════════");
                 log.info("");
                 log.info("📦 WAREHOUSES ({}):", entrepots.size());
-                for (int i = 0; i < entrepots.size(); i++) {
+                for (int i = 0; i < Math.min(entrepots.size(), 5); i++) {
                         log.info("   {}. {} ({})", i + 1, entrepots.get(i).getNom(), entrepots.get(i).getVille());
                 }
+                if (entrepots.size() > 5) {
+                        log.info("   ... and {} synthetic warehouses", entrepots.size() - 5);
+                }
                 log.info("");
                 log.info("🛒 PRODUCTS: {} products across {} categories", produits.size(),
                                 produits.stream().map(Produit::getCategorie).distinct().count());
@@ -349,8 +308,9 @@ public class DataInitializer implements CommandLineRunner {
                 log.info("   │ gest_bordeaux    │ gest123   │ GESTIONNAIRE (Bordeaux)  │");
                 log.info("   └──────────────────┴───────────┴──────────────────────────┘");
                 log.info("");
-                log.info("📊 STOCKS: {} entries (some at critical/alert levels)", entrepots.size() * produits.size());
-                log.info("📈 SALES HISTORY: ~90 days of data for AI predictions");
+                log.info("📊 STOCKS: {} entries (some at critical/alert levels)", result.stocks());
+                log.info("📈 SALES HISTORY: {} sales over {} days for AI predictions", result.ventes(),
+                                sampleDataGenerator.getDays());
                 log.info("");
                 log.info("🌐 ACCESS POINTS:");
                 log.info("   • Swagger UI: http://localhost:8080/swagger-ui.html");
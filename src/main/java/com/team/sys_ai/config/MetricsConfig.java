@@ -0,0 +1,68 @@
+package com.team.sys_ai.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.JdbcSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Application metrics beyond the ones of the actuator (HTTP requests, repository
+ * invocations, JVM, pools, caches): SQL statements per HTTP request, checked against
+ * a statement budget and for N+1 selects.
+ * The prediction stages and the AI calls are timed in their services.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Install the statement counter, after the inspector configured in
+     * spring.jpa.properties (class name or instance) when there is one.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer(SqlStatementCounter sqlStatementCounter) {
+        return properties -> {
+            Object configured = properties.get(JdbcSettings.STATEMENT_INSPECTOR);
+            if (configured == null) {
+                properties.put(JdbcSettings.STATEMENT_INSPECTOR, sqlStatementCounter);
+                return;
+            }
+            StatementInspector inspector = toStatementInspector(configured);
+            properties.put(JdbcSettings.STATEMENT_INSPECTOR,
+                    (StatementInspector) sql -> sqlStatementCounter.inspect(inspector.inspect(sql)));
+        };
+    }
+
+    private static StatementInspector toStatementInspector(Object configured) {
+        if (configured instanceof StatementInspector inspector) {
+            return inspector;
+        }
+        Class<?> type = configured instanceof Class<?> clazz
+                ? clazz
+                : ClassUtils.resolveClassName(configured.toString(), MetricsConfig.class.getClassLoader());
+        return (StatementInspector) BeanUtils.instantiateClass(type);
+    }
+
+    /**
+     * Registered before the security filter chain so that the user lookup of the JWT filter is counted.
+     * Limits default to 30 statements per request and 5 executions of a same statement.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.metrics.sql-statements.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<SqlStatementMetricsFilter> sqlStatementMetricsFilter(
+            SqlStatementCounter sqlStatementCounter, MeterRegistry meterRegistry,
+            @Value("${app.metrics.sql-statements.budget:30}") int budget,
+            @Value("${app.metrics.sql-statements.max-repeated:5}") int maxRepeated) {
+        FilterRegistrationBean<SqlStatementMetricsFilter> registration = new FilterRegistrationBean<>(
+                new SqlStatementMetricsFilter(sqlStatementCounter, meterRegistry, budget, maxRepeated));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+}
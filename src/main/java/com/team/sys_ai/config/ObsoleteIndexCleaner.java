@@ -0,0 +1,45 @@
+package com.team.sys_ai.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Drops the indexes removed from the entity mappings (PostgreSQL only).
+ * ddl-auto=update creates the new composite indexes but never drops the old
+ * single-column ones, which only slow down the inserts: the composites lead
+ * with the same columns.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class ObsoleteIndexCleaner {
+
+    private static final List<String> INDEXES = List.of(
+            "idx_historique_entrepot",
+            "idx_historique_produit",
+            "idx_prevision_entrepot",
+            "idx_prevision_produit");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void dropObsoleteIndexes() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+        for (String index : INDEXES) {
+            jdbcTemplate.execute("DROP INDEX IF EXISTS " + index);
+        }
+        log.debug("Obsolete indexes dropped if present: {}", INDEXES);
+    }
+}
@@ -0,0 +1,320 @@
+package com.team.sys_ai.config;
+
+import com.team.sys_ai.entity.Entrepot;
+import com.team.sys_ai.entity.Produit;
+import com.team.sys_ai.repository.VenteJournaliereRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Synthetic stocks and sales history of the sample dataset, sized for load tests.
+ * Warehouses are generated in parallel, each in one transaction, and written with
+ * batched JDBC inserts (COPY on PostgreSQL). Every product/warehouse pair draws from
+ * its own random stream derived from the seed, and sale ids follow from the position
+ * of the row, so the dataset does not depend on the number of workers.
+ */
+@Slf4j
+@Component
+public class SampleDataGenerator {
+
+    private static final String INSERT_STOCK = "INSERT INTO stocks " +
+            "(produit_id, entrepot_id, quantite_disponible, seuil_alerte, last_updated) VALUES (?, ?, ?, ?, ?)";
+    private static final String SALE_COLUMNS =
+            "id, produit_id, entrepot_id, date_vente, quantite_vendue, jour_semaine, mois, annee";
+    private static final String INSERT_SALE = "INSERT INTO historique_ventes (" + SALE_COLUMNS + ") " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String COPY_SALES = "COPY historique_ventes (" + SALE_COLUMNS + ") FROM STDIN WITH (FORMAT csv)";
+
+    // Allocation size of historique_ventes_seq (pooled, see HistoriqueVente)
+    private static final int ALLOCATION_SIZE = 50;
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+
+    // Random streams of a pair
+    private static final long STOCK_STREAM = 0;
+    private static final long SALES_STREAM = 1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VenteJournaliereRepository venteJournaliereRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int days;
+    private final long seed;
+    private final int parallelism;
+    private final int batchSize;
+    private final double sparsity;
+    private final double weekendBoost;
+    private final double seasonality;
+    private final double promoRate;
+    private final double promoUplift;
+
+    public SampleDataGenerator(JdbcTemplate jdbcTemplate,
+            VenteJournaliereRepository venteJournaliereRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.data.days:90}") int days,
+            @Value("${app.data.seed:42}") long seed,
+            @Value("${app.data.parallelism:0}") int parallelism,
+            @Value("${app.data.batch-size:1000}") int batchSize,
+            @Value("${app.data.sparsity:0.3}") double sparsity,
+            @Value("${app.data.weekend-boost:1.3}") double weekendBoost,
+            @Value("${app.data.seasonality:0}") double seasonality,
+            @Value("${app.data.promo-rate:0}") double promoRate,
+            @Value("${app.data.promo-uplift:1.5}") double promoUplift) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.venteJournaliereRepository = venteJournaliereRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.days = days;
+        this.seed = seed;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+        this.sparsity = sparsity;
+        this.weekendBoost = weekendBoost;
+        this.seasonality = seasonality;
+        this.promoRate = promoRate;
+        this.promoUplift = promoUplift;
+    }
+
+    public record Result(long stocks, long ventes) {
+    }
+
+    @FunctionalInterface
+    private interface SaleWriter {
+        void write(long id, Long produitId, LocalDate dateVente, int quantite) throws SQLException;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    /**
+     * Generate the stocks and the sales history (with its daily rollup) of the given
+     * warehouses and products, which must already be committed.
+     */
+    public Result generate(List<Entrepot> entrepots, List<Produit> produits) {
+        LocalDate today = LocalDate.now();
+        long firstId = maxSaleId() + 1;
+        boolean copy = isPostgres();
+        int workers = Math.min(entrepots.size(),
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, workers),
+                new CustomizableThreadFactory("data-generator-"));
+        long stocks = 0;
+        long ventes = 0;
+        try {
+            List<Future<Result>> results = new ArrayList<>(entrepots.size());
+            for (int i = 0; i < entrepots.size(); i++) {
+                int index = i;
+                results.add(pool.submit(() -> generateEntrepot(index, entrepots.get(index), produits,
+                        today, firstId, copy)));
+            }
+            for (Future<Result> result : results) {
+                stocks += result.get().stocks();
+                ventes += result.get().ventes();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sample data generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Sample data generation failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        if (ventes > 0) {
+            // Ids were assigned here, not by Hibernate: move the sequence past them
+            jdbcTemplate.execute("ALTER SEQUENCE historique_ventes_seq RESTART WITH " + (maxSaleId() + ALLOCATION_SIZE));
+        }
+        return new Result(stocks, ventes);
+    }
+
+    private Result generateEntrepot(int index, Entrepot entrepot, List<Produit> produits,
+            LocalDate today, long firstId, boolean copy) {
+        return transactionTemplate.execute(status -> {
+            long stocks = insertStocks(index, entrepot, produits);
+            long ventes = copy
+                    ? copySales(index, entrepot, produits, today, firstId)
+                    : insertSales(index, entrepot, produits, today, firstId);
+            venteJournaliereRepository.rebuildFromHistoriqueForEntrepot(entrepot.getId());
+            log.debug("Warehouse {}: {} stocks, {} sales generated", entrepot.getNom(), stocks, ventes);
+            return new Result(stocks, ventes);
+        });
+    }
+
+    private long insertStocks(int index, Entrepot entrepot, List<Produit> produits) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(produits.size());
+        for (int i = 0; i < produits.size(); i++) {
+            SplittableRandom random = random(index, i, STOCK_STREAM);
+            // Varied stock levels, some of them critical or near the alert threshold
+            int seuilAlerte = 20 + random.nextInt(30);
+            int quantite = 50 + random.nextInt(200);
+            double level = random.nextDouble();
+            if (level < 0.15) {
+                quantite = seuilAlerte / 2;
+            } else if (level < 0.35) {
+                quantite = seuilAlerte + random.nextInt(10);
+            }
+            rows.add(new Object[] { produits.get(i).getId(), entrepot.getId(), quantite, seuilAlerte, now });
+            if (rows.size() == batchSize) {
+                jdbcTemplate.batchUpdate(INSERT_STOCK, rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_STOCK, rows);
+        }
+        return produits.size();
+    }
+
+    private long insertSales(int index, Entrepot entrepot, List<Produit> produits, LocalDate today,
+            long firstId) {
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        try {
+            long count = generateSales(index, produits, today, firstId, (id, produitId, dateVente, quantite) -> {
+                rows.add(new Object[] { id, produitId, entrepot.getId(), dateVente, quantite,
+                        dateVente.getDayOfWeek().name(), dateVente.getMonthValue(), dateVente.getYear() });
+                if (rows.size() == batchSize) {
+                    jdbcTemplate.batchUpdate(INSERT_SALE, rows);
+                    rows.clear();
+                }
+            });
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SALE, rows);
+            }
+            return count;
+        } catch (SQLException e) {
+            // Not thrown by the batch writer
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long copySales(int index, Entrepot entrepot, List<Produit> produits, LocalDate today,
+            long firstId) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SALES);
+            try {
+                StringBuilder buffer = new StringBuilder(COPY_BUFFER_SIZE + 128);
+                long count = generateSales(index, produits, today, firstId, (id, produitId, dateVente, quantite) -> {
+                    buffer.append(id).append(',').append(produitId).append(',').append(entrepot.getId())
+                            .append(',').append(dateVente).append(',').append(quantite)
+                            .append(',').append(dateVente.getDayOfWeek().name())
+                            .append(',').append(dateVente.getMonthValue())
+                            .append(',').append(dateVente.getYear()).append('\n');
+                    if (buffer.length() >= COPY_BUFFER_SIZE) {
+                        writeCopy(copyIn, buffer);
+                    }
+                });
+                writeCopy(copyIn, buffer);
+                copyIn.endCopy();
+                return count;
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        });
+    }
+
+    private static void writeCopy(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.US_ASCII);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    /**
+     * Daily sales of every product of a warehouse over the last days (today excluded).
+     * Products skip some days; sales rise on weekends, follow a yearly season when
+     * seasonality is set, and during promotion weeks when promo-rate is set.
+     */
+    private long generateSales(int index, List<Produit> produits, LocalDate today, long firstId,
+            SaleWriter writer) throws SQLException {
+        LocalDate start = today.minusDays(days);
+        long count = 0;
+        for (int i = 0; i < produits.size(); i++) {
+            Produit produit = produits.get(i);
+            SplittableRandom random = random(index, i, SALES_STREAM);
+            int baseSales = getBaseSalesForProduct(produit, random);
+            double phase = random.nextDouble() * 2 * Math.PI;
+            boolean[] promoWeeks = new boolean[days / 7 + 1];
+            for (int week = 0; week < promoWeeks.length; week++) {
+                promoWeeks[week] = random.nextDouble() < promoRate;
+            }
+            // Room for one sale per day and pair, whatever the days skipped
+            long pairFirstId = firstId + ((long) index * produits.size() + i) * days;
+
+            for (int day = 0; day < days; day++) {
+                if (random.nextDouble() < sparsity) {
+                    continue;
+                }
+                LocalDate dateVente = start.plusDays(day);
+                double expected = baseSales;
+                if (dateVente.getDayOfWeek().getValue() >= 6) {
+                    expected *= weekendBoost;
+                }
+                if (seasonality > 0) {
+                    expected *= 1 + seasonality * Math.sin(2 * Math.PI * dateVente.getDayOfYear() / 365.25 + phase);
+                }
+                if (promoWeeks[day / 7]) {
+                    expected *= promoUplift;
+                }
+                int base = Math.max(0, (int) expected);
+                int quantite = Math.max(1, base + random.nextInt(base / 2 + 1) - base / 4);
+                writer.write(pairFirstId + day, produit.getId(), dateVente, quantite);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int getBaseSalesForProduct(Produit produit, SplittableRandom random) {
+        // Different products have different sales volumes
+        String categorie = produit.getCategorie() != null ? produit.getCategorie() : "";
+        return switch (categorie) {
+            case "Boissons" -> 8 + random.nextInt(10);
+            case "Alimentaire" -> 5 + random.nextInt(8);
+            case "Produits Laitiers" -> 10 + random.nextInt(15);
+            case "Conserves" -> 3 + random.nextInt(5);
+            case "Hygiène" -> 4 + random.nextInt(6);
+            case "Entretien" -> 2 + random.nextInt(4);
+            default -> 5 + random.nextInt(5);
+        };
+    }
+
+    /**
+     * Random stream of a product/warehouse pair, derived from the seed only.
+     */
+    private SplittableRandom random(int entrepotIndex, int produitIndex, long stream) {
+        long pair = ((long) entrepotIndex << 32) | produitIndex;
+        return new SplittableRandom(seed ^ (pair * 0x9E3779B97F4A7C15L) ^ (stream * 0xBF58476D1CE4E5B9L));
+    }
+
+    private long maxSaleId() {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM historique_ventes", Long.class);
+        return max != null ? max : 0;
+    }
+
+    private boolean isPostgres() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equals(database);
+    }
+}
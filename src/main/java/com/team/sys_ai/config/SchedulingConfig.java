@@ -0,0 +1,50 @@
+package com.team.sys_ai.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Scheduling configuration and worker pools for background forecasting jobs.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    /**
+     * Bounded pool used to refresh warehouses in parallel.
+     * The queue is unbounded on purpose: a refresh submits one task per active warehouse.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor forecastExecutor(
+            @Value("${app.forecast.refresh.pool-size:4}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setThreadNamePrefix("forecast-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Bounded pool that enriches saved predictions with AI recommendations.
+     * Its size caps the number of concurrent Ollama calls; batches submitted
+     * while the queue is full are dropped and keep their fallback text.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor aiRecommendationExecutor(
+            @Value("${app.ai.recommendation.concurrency:2}") int concurrency,
+            @Value("${app.ai.recommendation.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("ai-recommendation-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,49 @@
+package com.team.sys_ai.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves the pooled id sequences past the ids already in their table (PostgreSQL only).
+ * Needed once for tables created with IDENTITY ids before switching to sequences:
+ * ddl-auto=update creates the sequence at 1, which would collide with existing rows.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class SequenceAlignmentInitializer {
+
+    // Sequence name -> table, for entities using a pooled sequence (allocationSize 50)
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "previsions_seq", "previsions",
+            "historique_ventes_seq", "historique_ventes");
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void alignSequences() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+        SEQUENCES.forEach((sequence, table) -> {
+            Long value = jdbcTemplate.queryForObject(
+                    "SELECT setval('" + sequence + "', GREATEST(" +
+                            "(SELECT COALESCE(MAX(id), 0) FROM " + table + ") + " + ALLOCATION_SIZE + ", " +
+                            "(SELECT last_value FROM " + sequence + ")))",
+                    Long.class);
+            log.debug("Sequence {} aligned to {}", sequence, value);
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package com.team.sys_ai.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Counts the SQL statements prepared by Hibernate on the current thread between
+ * start() and close() of a scope, e.g. one HTTP request (a JDBC batch counts once).
+ * Scopes nest: a statement counts in every open scope of the thread, so that a test
+ * can count around a request that the metrics filter counts too.
+ * Statements of other threads (asynchronous tasks, scheduled jobs) are not counted.
+ */
+@Component
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Start counting on the current thread; close the returned scope on the same thread.
+     */
+    public Scope start() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.record(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Statements counted since start(). Hibernate generates the same SQL text for the same
+     * query, so a text executed many times is a loop of queries (N+1 selects).
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        private final Map<String, Integer> statements = new HashMap<>();
+        private int count;
+        private boolean closed;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        private void record(String sql) {
+            count++;
+            statements.merge(sql, 1, Integer::sum);
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Number of executions of each SQL text.
+         */
+        public Map<String, Integer> getStatements() {
+            return Map.copyOf(statements);
+        }
+
+        /**
+         * The SQL text executed the most times, if any.
+         */
+        public Optional<Map.Entry<String, Integer>> mostRepeated() {
+            return statements.entrySet().stream().max(Map.Entry.comparingByValue());
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (CURRENT.get() == this) {
+                if (parent != null) {
+                    CURRENT.set(parent);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.team.sys_ai.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Records the number of SQL statements of each HTTP request, including the ones of the
+ * authentication filter, as http.server.requests.sql.statements tagged like the
+ * request timers (method, uri pattern, status).
+ * Requests over the statement budget, or running the same statement more than the
+ * allowed number of times (N+1 selects), are logged and counted as violations.
+ */
+@Slf4j
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+
+    public static final String METRIC_NAME = "http.server.requests.sql.statements";
+    public static final String VIOLATIONS_METRIC_NAME = "http.server.requests.sql.violations";
+
+    private static final int MAX_LOGGED_SQL_LENGTH = 300;
+
+    private final SqlStatementCounter sqlStatementCounter;
+    private final MeterRegistry meterRegistry;
+    private final int budget;
+    private final int maxRepeated;
+
+    /**
+     * @param budget      maximum statements per request, 0 to disable the check
+     * @param maxRepeated maximum executions of a same statement per request, 0 to disable the check
+     */
+    public SqlStatementMetricsFilter(SqlStatementCounter sqlStatementCounter, MeterRegistry meterRegistry,
+            int budget, int maxRepeated) {
+        this.sqlStatementCounter = sqlStatementCounter;
+        this.meterRegistry = meterRegistry;
+        this.budget = budget;
+        this.maxRepeated = maxRepeated;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        SqlStatementCounter.Scope scope = sqlStatementCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            DistributionSummary.builder(METRIC_NAME)
+                    .description("SQL statements prepared by Hibernate per HTTP request")
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .tag("status", Integer.toString(response.getStatus()))
+                    .register(meterRegistry)
+                    .record(scope.getCount());
+            checkBudget(request, uri, scope);
+        }
+    }
+
+    private void checkBudget(HttpServletRequest request, String uri, SqlStatementCounter.Scope scope) {
+        if (budget > 0 && scope.getCount() > budget) {
+            log.warn("SQL budget exceeded: {} {} ran {} statements (budget {})",
+                    request.getMethod(), uri, scope.getCount(), budget);
+            violation(request, uri, "budget");
+        }
+        if (maxRepeated > 0) {
+            scope.mostRepeated()
+                    .filter(statement -> statement.getValue() > maxRepeated)
+                    .ifPresent(statement -> {
+                        log.warn("Repeated SQL, possible N+1 selects: {} {} ran {} times: {}",
+                                request.getMethod(), uri, statement.getValue(), abbreviate(statement));
+                        violation(request, uri, "repeated");
+                    });
+        }
+    }
+
+    private void violation(HttpServletRequest request, String uri, String type) {
+        Counter.builder(VIOLATIONS_METRIC_NAME)
+                .description("HTTP requests over the SQL statement budget or repeating a statement")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .tag("type", type)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String abbreviate(Map.Entry<String, Integer> statement) {
+        String sql = statement.getKey();
+        return sql.length() <= MAX_LOGGED_SQL_LENGTH ? sql : sql.substring(0, MAX_LOGGED_SQL_LENGTH) + "...";
+    }
+}
@@ -1,22 +1,43 @@
 package com.team.sys_ai.controller;
 
+import com.team.sys_ai.dto.CursorResponse;
 import com.team.sys_ai.dto.HistoriqueVenteDTO;
 import com.team.sys_ai.dto.PageResponse;
+import com.team.sys_ai.dto.VenteBulkItemDTO;
+import com.team.sys_ai.dto.VenteBulkResultDTO;
+import com.team.sys_ai.exception.BusinessValidationException;
 import com.team.sys_ai.security.CustomUserDetailsService.CustomUserDetails;
+import com.team.sys_ai.service.HistoriqueVenteExportService;
+import com.team.sys_ai.service.HistoriqueVenteExportService.ExportFormat;
 import com.team.sys_ai.service.HistoriqueVenteService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Parameter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/historique")
@@ -24,6 +45,12 @@ import java.util.List;
 public class HistoriqueVenteController {
 
         private final HistoriqueVenteService historiqueVenteService;
+        private final HistoriqueVenteExportService historiqueVenteExportService;
+        private final ObjectMapper objectMapper;
+        private final Validator validator;
+
+        @Value("${app.sales.bulk.max-items:10000}")
+        private int bulkMaxItems;
 
         /**
          * Get sales history for a warehouse (paginated).
@@ -38,6 +65,21 @@ public class HistoriqueVenteController {
                                                 pageable)));
         }
 
+        /**
+         * Get sales history for a warehouse (keyset pagination).
+         * Pass the nextCursor of a response to get the following page.
+         */
+        @GetMapping("/entrepot/{entrepotId}/scroll")
+        public ResponseEntity<CursorResponse<HistoriqueVenteDTO>> getHistoriqueByEntrepotScroll(
+                        @PathVariable Long entrepotId,
+                        @RequestParam(required = false) String cursor,
+                        @RequestParam(defaultValue = "20") int size,
+                        @RequestParam(defaultValue = "false") boolean includeTotal,
+                        @Parameter(hidden = true) @AuthenticationPrincipal CustomUserDetails userDetails) {
+                return ResponseEntity.ok(historiqueVenteService.getHistoriqueByEntrepot(
+                                entrepotId, userDetails.getUser(), cursor, size, includeTotal));
+        }
+
         /**
          * Get sales history by date range (paginated).
          */
@@ -67,6 +109,35 @@ public class HistoriqueVenteController {
                                                 produitId, entrepotId, userDetails.getUser(), pageable)));
         }
 
+        /**
+         * Export the sales history of a warehouse as CSV or NDJSON, streamed row by row.
+         */
+        @GetMapping("/entrepot/{entrepotId}/export")
+        public ResponseEntity<StreamingResponseBody> exportHistorique(
+                        @PathVariable Long entrepotId,
+                        @RequestParam(defaultValue = "csv") String format,
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                        @RequestParam(defaultValue = "false") boolean gzip,
+                        @Parameter(hidden = true) @AuthenticationPrincipal CustomUserDetails userDetails) {
+                ExportFormat exportFormat = ExportFormat.of(format);
+                StreamingResponseBody body = historiqueVenteExportService.exportHistorique(
+                                entrepotId, startDate, endDate, exportFormat, gzip, userDetails.getUser());
+
+                String filename = "historique-entrepot-" + entrepotId + "." + exportFormat.getExtension();
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                if (gzip) {
+                        filename += ".gz";
+                        response.contentType(MediaType.parseMediaType("application/gzip"));
+                } else {
+                        response.contentType(exportFormat.getMediaType());
+                }
+                return response
+                                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                                                .filename(filename).build().toString())
+                                .body(body);
+        }
+
         /**
          * Record a sale.
          */
@@ -88,6 +159,63 @@ public class HistoriqueVenteController {
                 return ResponseEntity.status(HttpStatus.CREATED).body(result);
         }
 
+        /**
+         * Record a batch of sales for a warehouse (JSON array).
+         */
+        @PostMapping(value = "/entrepot/{entrepotId}/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+        public ResponseEntity<VenteBulkResultDTO> recordSales(
+                        @PathVariable Long entrepotId,
+                        @RequestBody List<@Valid VenteBulkItemDTO> ventes,
+                        @Parameter(hidden = true) @AuthenticationPrincipal CustomUserDetails userDetails) {
+                return ResponseEntity.status(HttpStatus.CREATED)
+                                .body(historiqueVenteService.recordSales(entrepotId, ventes, userDetails.getUser()));
+        }
+
+        /**
+         * Record a batch of sales for a warehouse (NDJSON stream, one sale per line).
+         */
+        @PostMapping(value = "/entrepot/{entrepotId}/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+        public ResponseEntity<VenteBulkResultDTO> recordSalesNdjson(
+                        @PathVariable Long entrepotId,
+                        InputStream body,
+                        @Parameter(hidden = true) @AuthenticationPrincipal CustomUserDetails userDetails)
+                        throws IOException {
+                List<VenteBulkItemDTO> ventes = new ArrayList<>();
+                try (MappingIterator<VenteBulkItemDTO> lines = objectMapper.readerFor(VenteBulkItemDTO.class)
+                                .readValues(body)) {
+                        // Read line by line: an oversized upload is rejected without being read to the end
+                        while (lines.hasNextValue()) {
+                                if (ventes.size() == bulkMaxItems) {
+                                        throw new BusinessValidationException("ventes",
+                                                        String.format("Le lot ne peut pas dépasser %d ventes", bulkMaxItems));
+                                }
+                                VenteBulkItemDTO vente = lines.nextValue();
+                                validate(vente, ventes.size() + 1);
+                                ventes.add(vente);
+                        }
+                } catch (JsonProcessingException e) {
+                        throw new BusinessValidationException("ventes",
+                                        "Ligne NDJSON invalide: " + e.getOriginalMessage());
+                }
+                return ResponseEntity.status(HttpStatus.CREATED)
+                                .body(historiqueVenteService.recordSales(entrepotId, ventes, userDetails.getUser()));
+        }
+
+        /**
+         * Bean validation of an NDJSON line (the JSON array is validated by @Valid).
+         */
+        private void validate(VenteBulkItemDTO vente, int ligne) {
+                if (vente == null) {
+                        throw new BusinessValidationException("ventes", "Ligne " + ligne + ": vente absente");
+                }
+                Set<ConstraintViolation<VenteBulkItemDTO>> violations = validator.validate(vente);
+                if (!violations.isEmpty()) {
+                        ConstraintViolation<VenteBulkItemDTO> violation = violations.iterator().next();
+                        throw new BusinessValidationException(violation.getPropertyPath().toString(),
+                                        "Ligne " + ligne + ": " + violation.getMessage());
+                }
+        }
+
         /**
          * Get total quantity sold analytics.
          */
@@ -1,8 +1,13 @@
 package com.team.sys_ai.controller;
 
+import com.team.sys_ai.dto.BacktestStatusDTO;
+import com.team.sys_ai.dto.CursorResponse;
 import com.team.sys_ai.dto.PageResponse;
 import com.team.sys_ai.dto.PrevisionDTO;
+import com.team.sys_ai.dto.PrevisionRefreshStatusDTO;
 import com.team.sys_ai.security.CustomUserDetailsService.CustomUserDetails;
+import com.team.sys_ai.service.BacktestService;
+import com.team.sys_ai.service.PrevisionRefreshService;
 import com.team.sys_ai.service.PrevisionService;
 import io.swagger.v3.oas.annotations.Parameter;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +28,8 @@ import java.util.Optional;
 public class PrevisionController {
 
         private final PrevisionService previsionService;
+        private final PrevisionRefreshService previsionRefreshService;
+        private final BacktestService backtestService;
 
         /**
          * Get predictions for a warehouse (paginated).
@@ -36,6 +43,21 @@ public class PrevisionController {
                                 previsionService.getPrevisionsByEntrepot(entrepotId, userDetails.getUser(), pageable)));
         }
 
+        /**
+         * Get predictions for a warehouse (keyset pagination).
+         * Pass the nextCursor of a response to get the following page.
+         */
+        @GetMapping("/entrepot/{entrepotId}/scroll")
+        public ResponseEntity<CursorResponse<PrevisionDTO>> getPrevisionsByEntrepotScroll(
+                        @PathVariable Long entrepotId,
+                        @RequestParam(required = false) String cursor,
+                        @RequestParam(defaultValue = "20") int size,
+                        @RequestParam(defaultValue = "false") boolean includeTotal,
+                        @Parameter(hidden = true) @AuthenticationPrincipal CustomUserDetails userDetails) {
+                return ResponseEntity.ok(previsionService.getPrevisionsByEntrepot(
+                                entrepotId, userDetails.getUser(), cursor, size, includeTotal));
+        }
+
         /**
          * Get high-risk predictions for a warehouse (paginated).
          */
@@ -95,4 +117,40 @@ public class PrevisionController {
                                 .body(previsionService.generatePrevisionsForEntrepot(entrepotId,
                                                 userDetails.getUser()));
         }
+
+        /**
+         * Start a background refresh of all active warehouses (ADMIN only).
+         */
+        @PostMapping("/refresh")
+        @PreAuthorize("hasRole('ADMIN')")
+        public ResponseEntity<PrevisionRefreshStatusDTO> refreshAll() {
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(previsionRefreshService.triggerRefresh());
+        }
+
+        /**
+         * Get progress of the background refresh (ADMIN only).
+         */
+        @GetMapping("/refresh/status")
+        @PreAuthorize("hasRole('ADMIN')")
+        public ResponseEntity<PrevisionRefreshStatusDTO> getRefreshStatus() {
+                return ResponseEntity.ok(previsionRefreshService.getStatus());
+        }
+
+        /**
+         * Start a background backtest selecting the model of every product (ADMIN only).
+         */
+        @PostMapping("/backtest")
+        @PreAuthorize("hasRole('ADMIN')")
+        public ResponseEntity<BacktestStatusDTO> backtestAll() {
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(backtestService.triggerBacktest());
+        }
+
+        /**
+         * Get progress of the background backtest and the current model selections (ADMIN only).
+         */
+        @GetMapping("/backtest/status")
+        @PreAuthorize("hasRole('ADMIN')")
+        public ResponseEntity<BacktestStatusDTO> getBacktestStatus() {
+                return ResponseEntity.ok(backtestService.getStatus());
+        }
 }
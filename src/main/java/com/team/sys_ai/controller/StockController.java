@@ -1,5 +1,6 @@
 package com.team.sys_ai.controller;
 
+import com.team.sys_ai.dto.CursorResponse;
 import com.team.sys_ai.dto.PageResponse;
 import com.team.sys_ai.dto.StockDTO;
 import com.team.sys_ai.security.CustomUserDetailsService.CustomUserDetails;
@@ -32,6 +33,21 @@ public class StockController {
                                 stockService.getStocksByEntrepot(entrepotId, userDetails.getUser(), pageable)));
         }
 
+        /**
+         * Get stocks for a warehouse (keyset pagination).
+         * Pass the nextCursor of a response to get the following page.
+         */
+        @GetMapping("/entrepot/{entrepotId}/scroll")
+        public ResponseEntity<CursorResponse<StockDTO>> getStocksByEntrepotScroll(
+                        @PathVariable Long entrepotId,
+                        @RequestParam(required = false) String cursor,
+                        @RequestParam(defaultValue = "20") int size,
+                        @RequestParam(defaultValue = "false") boolean includeTotal,
+                        @Parameter(hidden = true) @AuthenticationPrincipal CustomUserDetails userDetails) {
+                return ResponseEntity.ok(stockService.getStocksByEntrepot(
+                                entrepotId, userDetails.getUser(), cursor, size, includeTotal));
+        }
+
         /**
          * Get stocks at alert level for a warehouse (paginated).
          */
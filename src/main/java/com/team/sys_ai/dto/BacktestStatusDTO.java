@@ -0,0 +1,42 @@
+package com.team.sys_ai.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Progression du backtest des modèles de prévision - lecture seule")
+public class BacktestStatusDTO {
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Backtest en cours")
+    private boolean enCours;
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Début du dernier backtest")
+    private LocalDateTime debut;
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Fin du dernier backtest")
+    private LocalDateTime fin;
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Nombre d'entrepôts traités")
+    private int entrepotsTraites;
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Nombre d'entrepôts en échec")
+    private int entrepotsEnEchec;
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Nombre de couples produit/entrepôt évalués")
+    private long pairesEvaluees;
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Erreur moyenne (MASE) des modèles retenus")
+    private double maseMoyen;
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Nombre de couples par modèle retenu")
+    private Map<String, Long> selectionsParModele;
+}
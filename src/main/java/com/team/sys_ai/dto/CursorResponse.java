@@ -0,0 +1,47 @@
+package com.team.sys_ai.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset (cursor) page response.
+ * The next page is requested with nextCursor instead of a page number, so deep pages
+ * cost the same as the first one. The total is only counted when explicitly requested.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorResponse<T> {
+
+    private List<T> content;
+    private int pageSize;
+    private String nextCursor;
+    private boolean hasNext;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalElements;
+
+    /**
+     * Build a response from rows fetched with a limit of pageSize + 1:
+     * the extra row only tells whether a next page exists.
+     */
+    public static <T> CursorResponse<T> of(List<T> rows, int pageSize, Function<T, String> cursorOf,
+            Long totalElements) {
+        boolean hasNext = rows.size() > pageSize;
+        List<T> content = hasNext ? rows.subList(0, pageSize) : rows;
+        return CursorResponse.<T>builder()
+                .content(content)
+                .pageSize(pageSize)
+                .nextCursor(hasNext ? cursorOf.apply(content.get(content.size() - 1)) : null)
+                .hasNext(hasNext)
+                .totalElements(totalElements)
+                .build();
+    }
+}
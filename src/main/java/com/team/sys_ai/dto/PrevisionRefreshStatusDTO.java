@@ -0,0 +1,49 @@
+package com.team.sys_ai.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Progression du rafraîchissement des prévisions - lecture seule")
+public class PrevisionRefreshStatusDTO {
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Rafraîchissement en cours")
+    private boolean enCours;
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY,
+            description = "Dernier rafraîchissement limité aux couples produit/entrepôt modifiés")
+    private boolean incremental;
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Début du dernier rafraîchissement")
+    private LocalDateTime debut;
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Fin du dernier rafraîchissement")
+    private LocalDateTime fin;
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Nombre d'entrepôts à traiter")
+    private int entrepotsTotal;
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Nombre d'entrepôts traités")
+    private int entrepotsTraites;
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Nombre d'entrepôts en échec")
+    private int entrepotsEnEchec;
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Nombre de prévisions générées")
+    private long previsionsGenerees;
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Débit (prévisions par seconde)")
+    private double previsionsParSeconde;
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY,
+            description = "Couples produit/entrepôt modifiés en attente du prochain rafraîchissement")
+    private int changementsEnAttente;
+}
@@ -0,0 +1,31 @@
+package com.team.sys_ai.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Vente d'un lot d'ingestion (JSON array ou NDJSON)")
+public class VenteBulkItemDTO {
+
+    @NotNull(message = "L'ID du produit est obligatoire")
+    @Schema(description = "ID du produit vendu", example = "1")
+    private Long produitId;
+
+    @NotNull(message = "La quantité vendue est obligatoire")
+    @Positive(message = "La quantité vendue doit être positive")
+    @Schema(description = "Quantité vendue", example = "3")
+    private Integer quantite;
+
+    @Schema(description = "Date de la vente (aujourd'hui si absente)", example = "2025-01-15")
+    private LocalDate dateVente;
+}
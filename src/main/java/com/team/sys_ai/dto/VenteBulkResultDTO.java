@@ -0,0 +1,24 @@
+package com.team.sys_ai.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Résultat d'une ingestion de ventes en lot - lecture seule")
+public class VenteBulkResultDTO {
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Nombre de ventes enregistrées")
+    private int ventesEnregistrees;
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Nombre de produits distincts")
+    private int produits;
+
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY, description = "Quantité totale vendue")
+    private long quantiteTotale;
+}
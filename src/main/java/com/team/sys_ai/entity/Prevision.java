@@ -3,14 +3,23 @@ package com.team.sys_ai.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "previsions", indexes = {
-        @Index(name = "idx_prevision_entrepot", columnList = "entrepot_id"),
-        @Index(name = "idx_prevision_produit", columnList = "produit_id"),
+// Composite indexes follow the query shapes of PrevisionRepository (checked by QueryPlanTest);
+// the former single-column indexes are dropped from existing databases by ObsoleteIndexCleaner
+// One prediction per product, warehouse and day: regenerating updates the row of the day
+@Table(name = "previsions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_prevision_produit_entrepot_date",
+                columnNames = { "produit_id", "entrepot_id", "date_prevision" })
+}, indexes = {
+        @Index(name = "idx_prevision_entrepot_date", columnList = "entrepot_id, date_prevision, id"),
+        @Index(name = "idx_prevision_produit_entrepot_derniere", columnList = "produit_id, entrepot_id, derniere"),
+        @Index(name = "idx_prevision_entrepot_derniere_risque", columnList = "entrepot_id, derniere, niveau_risque"),
+        @Index(name = "idx_prevision_derniere_risque_date", columnList = "derniere, niveau_risque, date_prevision"),
         @Index(name = "idx_prevision_date", columnList = "date_prevision")
 })
 @Getter
@@ -20,8 +29,10 @@ import java.time.LocalDateTime;
 @Builder
 public class Prevision {
 
+    // Pooled sequence (not IDENTITY) so that Hibernate can batch the inserts of generate-all
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "prevision_seq")
+    @SequenceGenerator(name = "prevision_seq", sequenceName = "previsions_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "Le produit est obligatoire")
@@ -62,6 +73,12 @@ public class Prevision {
     @Builder.Default
     private NiveauRisque niveauRisque = NiveauRisque.FAIBLE;
 
+    // Set on the most recent prediction of each product/warehouse, cleared when a newer one is saved
+    @Column(nullable = false)
+    @ColumnDefault("false")
+    @Builder.Default
+    private Boolean derniere = true;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
@@ -3,6 +3,8 @@ package com.team.sys_ai.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -10,6 +12,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "produits")
 @Table(name = "produits", indexes = {
         @Index(name = "idx_produit_nom", columnList = "nom"),
         @Index(name = "idx_produit_categorie", columnList = "categorie")
@@ -0,0 +1,70 @@
+package com.team.sys_ai.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Forecasting model chosen for a product in a warehouse by the last backtest,
+ * with its out-of-sample errors. Rewritten per warehouse on each backtest.
+ */
+@Entity
+@Table(name = "selections_modele", indexes = {
+        @Index(name = "idx_selection_modele_entrepot", columnList = "entrepot_id")
+})
+@IdClass(SelectionModeleId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SelectionModele implements Persistable<SelectionModeleId> {
+
+    @Id
+    @Column(name = "produit_id")
+    private Long produitId;
+
+    @Id
+    @Column(name = "entrepot_id")
+    private Long entrepotId;
+
+    @Column(nullable = false, length = 50)
+    private String modele;
+
+    // Mean absolute percentage error on weekly totals, null when no week had sales
+    @Column
+    private Double mape;
+
+    // Mean absolute scaled error (against the previous-week naive forecast)
+    @Column(nullable = false)
+    private Double mase;
+
+    @Column(name = "nombre_origines", nullable = false)
+    private Integer nombreOrigines;
+
+    @Column(name = "date_backtest", nullable = false)
+    private LocalDateTime dateBacktest;
+
+    // Rows are always inserted after a delete: skip the select of merge()
+    @Transient
+    @Builder.Default
+    private boolean nouveau = true;
+
+    @Override
+    public SelectionModeleId getId() {
+        return new SelectionModeleId(produitId, entrepotId);
+    }
+
+    @Override
+    public boolean isNew() {
+        return nouveau;
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markPersisted() {
+        this.nouveau = false;
+    }
+}
@@ -0,0 +1,22 @@
+package com.team.sys_ai.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Composite key of a model selection: product × warehouse.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class SelectionModeleId implements Serializable {
+
+    private Long produitId;
+
+    private Long entrepotId;
+}
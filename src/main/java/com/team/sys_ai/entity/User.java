@@ -67,6 +67,11 @@ public class User {
     @Column(name = "last_login")
     private LocalDateTime lastLogin;
 
+    // Bumped to revoke every token issued before (deactivation, role or warehouse change...)
+    @Column(name = "token_version")
+    @Builder.Default
+    private Integer tokenVersion = 0;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
@@ -78,6 +83,17 @@ public class User {
     }
 
 
+    public int currentTokenVersion() {
+        return tokenVersion != null ? tokenVersion : 0;
+    }
+
+    /**
+     * Invalidate all tokens issued so far for this user.
+     */
+    public void revokeTokens() {
+        this.tokenVersion = currentTokenVersion() + 1;
+    }
+
     public boolean hasAccessToEntrepot(Long entrepotId) {
         if (isAdmin()) {
             return true;
@@ -0,0 +1,63 @@
+package com.team.sys_ai.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * Daily sales rollup (product × warehouse × day), maintained incrementally
+ * when a sale is recorded so that analytics and forecasting read one row per
+ * day instead of every sale.
+ */
+@Entity
+@Table(name = "ventes_journalieres", indexes = {
+        @Index(name = "idx_vente_journaliere_entrepot_date", columnList = "entrepot_id, date_vente")
+})
+@IdClass(VenteJournaliereId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VenteJournaliere {
+
+    @Id
+    @Column(name = "produit_id")
+    private Long produitId;
+
+    @Id
+    @Column(name = "entrepot_id")
+    private Long entrepotId;
+
+    @Id
+    @Column(name = "date_vente")
+    private LocalDate dateVente;
+
+    @Column(name = "quantite_totale", nullable = false)
+    private Integer quantiteTotale;
+
+    @Column(name = "nombre_ventes", nullable = false)
+    private Integer nombreVentes;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "jour_semaine", length = 20)
+    private DayOfWeek jourSemaine;
+
+    @Column(nullable = false)
+    private Integer mois;
+
+    @Column(nullable = false)
+    private Integer annee;
+
+    @PrePersist
+    @PreUpdate
+    protected void calculateDateFields() {
+        if (dateVente != null) {
+            this.jourSemaine = dateVente.getDayOfWeek();
+            this.mois = dateVente.getMonthValue();
+            this.annee = dateVente.getYear();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.team.sys_ai.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Composite key of the daily sales rollup: product × warehouse × day.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class VenteJournaliereId implements Serializable {
+
+    private Long produitId;
+
+    private Long entrepotId;
+
+    private LocalDate dateVente;
+}
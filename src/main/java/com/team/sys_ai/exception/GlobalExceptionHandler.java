@@ -10,6 +10,7 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -100,6 +101,21 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<ErrorResponse> handleMethodValidation(HandlerMethodValidationException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getParameterValidationResults().forEach(result -> {
+            // e.g. ventes[2].quantite for an element of a validated list
+            String parameter = result.getMethodParameter().getParameterName() +
+                (result.getContainerIndex() != null ? "[" + result.getContainerIndex() + "]" : "");
+            result.getResolvableErrors().forEach(error -> errors.put(
+                error instanceof FieldError fieldError ? parameter + "." + fieldError.getField() : parameter,
+                error.getDefaultMessage()));
+        });
+        ErrorResponse error = new ErrorResponse(HttpStatus.BAD_REQUEST, "Erreur de validation", null, errors);
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<ErrorResponse> handleAccessDenied(AccessDeniedException ex) {
         ErrorResponse error = new ErrorResponse(HttpStatus.FORBIDDEN, "Accès refusé", null);
@@ -0,0 +1,98 @@
+package com.team.sys_ai.forecast;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Rolling-origin backtest of forecasting models on the daily sales of one product.
+ * For each of the last weeks, every model forecasts the week from the days before it;
+ * weekly totals are scored with MASE (scaled by the error of the previous-week naive
+ * forecast before the first origin) and MAPE. The model with the lowest MASE wins.
+ */
+@Component
+public class Backtester {
+
+    private static final int HORIZON = 7;
+    // Days of history kept before the first origin (training part, MASE scale)
+    private static final int MIN_HISTORY = 28;
+
+    private final int weeks;
+
+    public Backtester(@Value("${app.forecast.backtest.weeks:8}") int weeks) {
+        this.weeks = weeks;
+    }
+
+    /**
+     * Winner of the backtest, or null when the history is too short or has no sale.
+     */
+    public Result backtest(int[] ventes, int length, int premierJour, Collection<ForecastModel> models) {
+        int origines = Math.min(weeks, (length - MIN_HISTORY) / HORIZON);
+        if (origines <= 0 || !hasSales(ventes, length)) {
+            return null;
+        }
+        int premiereOrigine = length - origines * HORIZON;
+        double echelle = naiveWeeklyError(ventes, premiereOrigine);
+
+        Result best = null;
+        for (ForecastModel model : models) {
+            double erreurAbsolue = 0;
+            double erreurRelative = 0;
+            int semainesAvecVentes = 0;
+            for (int origine = premiereOrigine; origine < length; origine += HORIZON) {
+                double prevu = model.forecast(ventes, origine, premierJour, HORIZON);
+                long reel = sum(ventes, origine, origine + HORIZON);
+                double erreur = Math.abs(reel - prevu);
+                erreurAbsolue += erreur;
+                if (reel > 0) {
+                    erreurRelative += erreur / reel;
+                    semainesAvecVentes++;
+                }
+            }
+            double mase = erreurAbsolue / origines / echelle;
+            if (best == null || mase < best.mase()) {
+                best = new Result(model.getName(),
+                        semainesAvecVentes > 0 ? erreurRelative / semainesAvecVentes : null, mase, origines);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Mean absolute difference between consecutive weekly totals before the first origin
+     * (1 when the training part is flat, so that MASE stays finite).
+     */
+    private static double naiveWeeklyError(int[] ventes, int premiereOrigine) {
+        double total = 0;
+        int n = 0;
+        for (int fin = premiereOrigine; fin - 2 * HORIZON >= 0; fin -= HORIZON) {
+            total += Math.abs(sum(ventes, fin - HORIZON, fin) - sum(ventes, fin - 2 * HORIZON, fin - HORIZON));
+            n++;
+        }
+        return n > 0 && total > 0 ? total / n : 1;
+    }
+
+    private static boolean hasSales(int[] ventes, int length) {
+        for (int i = 0; i < length; i++) {
+            if (ventes[i] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long sum(int[] ventes, int from, int to) {
+        long total = 0;
+        for (int i = from; i < to; i++) {
+            total += ventes[i];
+        }
+        return total;
+    }
+
+    /**
+     * Winning model and its errors.
+     */
+    public record Result(String modele, Double mape, double mase, int origines) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.team.sys_ai.forecast;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Croston's method for intermittent demand, with the Syntetos-Boylan bias correction:
+ * sale sizes and intervals between sales are smoothed separately, and the daily
+ * demand is size / interval. Suited to slow movers with many days without sales.
+ */
+@Component
+public class CrostonModel implements ForecastModel {
+
+    public static final String NAME = "croston";
+
+    private static final double ALPHA = 0.1;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public double forecast(int[] ventes, int length, int premierJour, int horizon) {
+        int first = 0;
+        while (first < length && ventes[first] == 0) {
+            first++;
+        }
+        if (first == length) {
+            return 0;
+        }
+
+        double taille = ventes[first];
+        double intervalle = first + 1;
+        int joursDepuisVente = 0;
+        for (int t = first + 1; t < length; t++) {
+            joursDepuisVente++;
+            if (ventes[t] > 0) {
+                taille += ALPHA * (ventes[t] - taille);
+                intervalle += ALPHA * (joursDepuisVente - intervalle);
+                joursDepuisVente = 0;
+            }
+        }
+        return (1 - ALPHA / 2) * taille / intervalle * horizon;
+    }
+}
@@ -0,0 +1,25 @@
+package com.team.sys_ai.forecast;
+
+/**
+ * Forecasting model: predicts the quantity sold over the next days from the daily
+ * sales of one product in one warehouse. Implementations are Spring beans, selected
+ * per product category by ForecastModelSelector; they must be stateless and should
+ * not allocate per day, since they run for every product of every warehouse.
+ */
+public interface ForecastModel {
+
+    /**
+     * Name used in configuration (app.forecast.model.*).
+     */
+    String getName();
+
+    /**
+     * Expected total quantity sold over the horizon.
+     *
+     * @param ventes       daily quantities, oldest first; zero on days without sales
+     * @param length       number of days of ventes to use (ventes[0..length)), the last one being the most recent
+     * @param premierJour  day of week of ventes[0] (0 = Monday ... 6 = Sunday)
+     * @param horizon      number of days to forecast, starting the day after ventes[length - 1]
+     */
+    double forecast(int[] ventes, int length, int premierJour, int horizon);
+}
@@ -0,0 +1,80 @@
+package com.team.sys_ai.forecast;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chooses the forecasting model of a product from its category.
+ * Categories are configured as "Catégorie:model,Autre catégorie:model";
+ * products of other categories use the default model.
+ */
+@Slf4j
+@Component
+public class ForecastModelSelector {
+
+    private final Map<String, ForecastModel> models = new LinkedHashMap<>();
+    private final Map<String, ForecastModel> byCategorie = new HashMap<>();
+    private final ForecastModel defaultModel;
+
+    public ForecastModelSelector(List<ForecastModel> models,
+            @Value("${app.forecast.model.default:" + WeightedAverageModel.NAME + "}") String defaultModel,
+            @Value("${app.forecast.model.categories:}") String categories) {
+        for (ForecastModel model : models) {
+            this.models.put(model.getName(), model);
+        }
+        this.defaultModel = get(defaultModel);
+        for (String entry : categories.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.lastIndexOf(':');
+            if (separator <= 0) {
+                throw new IllegalStateException("Invalid app.forecast.model.categories entry: " + entry);
+            }
+            byCategorie.put(entry.substring(0, separator).trim(), get(entry.substring(separator + 1).trim()));
+        }
+        log.info("Forecast models: {} (default {}, by category {})", this.models.keySet(), defaultModel,
+                byCategorie.isEmpty() ? "none" : byCategorie.keySet());
+    }
+
+    /**
+     * Model of a product category.
+     */
+    public ForecastModel forCategorie(String categorie) {
+        return categorie != null ? byCategorie.getOrDefault(categorie, defaultModel) : defaultModel;
+    }
+
+    /**
+     * Model chosen for a product: the backtest winner when it is still registered,
+     * else the model of its category.
+     */
+    public ForecastModel forProduit(String modeleSelectionne, String categorie) {
+        ForecastModel model = modeleSelectionne != null ? models.get(modeleSelectionne) : null;
+        return model != null ? model : forCategorie(categorie);
+    }
+
+    /**
+     * Model by name.
+     */
+    public ForecastModel get(String name) {
+        ForecastModel model = models.get(name);
+        if (model == null) {
+            throw new IllegalStateException("Unknown forecast model: " + name + ", available: " + models.keySet());
+        }
+        return model;
+    }
+
+    /**
+     * All registered models.
+     */
+    public Collection<ForecastModel> getModels() {
+        return models.values();
+    }
+}
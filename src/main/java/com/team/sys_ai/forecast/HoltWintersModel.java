@@ -0,0 +1,68 @@
+package com.team.sys_ai.forecast;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Additive Holt-Winters with a damped trend and a weekly season: level, trend and
+ * one seasonal term per day of week, updated day by day. Suited to products with
+ * regular sales and a weekly pattern. Needs two full weeks of history; with less,
+ * the daily mean is used.
+ */
+@Component
+public class HoltWintersModel implements ForecastModel {
+
+    public static final String NAME = "holt-winters";
+
+    private static final int SEASON = 7;
+    private static final double ALPHA = 0.1;
+    private static final double BETA = 0.01;
+    private static final double GAMMA = 0.1;
+    private static final double PHI = 0.9;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public double forecast(int[] ventes, int length, int premierJour, int horizon) {
+        if (length < 2 * SEASON) {
+            return length == 0 ? 0 : mean(ventes, 0, length) * horizon;
+        }
+
+        // Initial level and seasonal terms from the first two weeks, no initial trend
+        double niveau = mean(ventes, 0, 2 * SEASON);
+        double tendance = 0;
+        double[] saison = new double[SEASON];
+        for (int i = 0; i < SEASON; i++) {
+            saison[(premierJour + i) % SEASON] = (ventes[i] + ventes[i + SEASON]) / 2.0 - niveau;
+        }
+
+        for (int t = 2 * SEASON; t < length; t++) {
+            int jour = (premierJour + t) % SEASON;
+            double precedent = niveau;
+            niveau = ALPHA * (ventes[t] - saison[jour]) + (1 - ALPHA) * (niveau + PHI * tendance);
+            tendance = BETA * (niveau - precedent) + (1 - BETA) * PHI * tendance;
+            saison[jour] = GAMMA * (ventes[t] - niveau) + (1 - GAMMA) * saison[jour];
+        }
+
+        double total = 0;
+        double amortissement = 0;
+        double phiH = 1;
+        for (int h = 1; h <= horizon; h++) {
+            phiH *= PHI;
+            amortissement += phiH;
+            int jour = (premierJour + length - 1 + h) % SEASON;
+            total += Math.max(0, niveau + amortissement * tendance + saison[jour]);
+        }
+        return total;
+    }
+
+    private static double mean(int[] ventes, int from, int to) {
+        long total = 0;
+        for (int i = from; i < to; i++) {
+            total += ventes[i];
+        }
+        return (double) total / (to - from);
+    }
+}
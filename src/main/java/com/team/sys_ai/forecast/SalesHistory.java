@@ -0,0 +1,73 @@
+package com.team.sys_ai.forecast;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Daily sales of the products of a warehouse over a fixed window of days,
+ * as primitive arrays ready to be passed to a ForecastModel.
+ */
+public class SalesHistory {
+
+    private final long premierJour;
+    private final int jours;
+    // Shared by products without sales; never written
+    private final int[] aucuneVente;
+    private final Map<Long, int[]> quantites = new HashMap<>();
+    private final Map<Long, Long> nombreVentes = new HashMap<>();
+
+    /**
+     * Window of jours days ending on dernierJour (inclusive).
+     */
+    public SalesHistory(LocalDate dernierJour, int jours) {
+        this.premierJour = dernierJour.toEpochDay() - jours + 1;
+        this.jours = jours;
+        this.aucuneVente = new int[jours];
+    }
+
+    /**
+     * Add sales of a product on a day; days outside the window are ignored.
+     */
+    public void add(Long produitId, long epochDay, int quantite, int nombre) {
+        long index = epochDay - premierJour;
+        if (index < 0 || index >= jours) {
+            return;
+        }
+        quantites.computeIfAbsent(produitId, id -> new int[jours])[(int) index] += quantite;
+        nombreVentes.merge(produitId, (long) nombre, Long::sum);
+    }
+
+    public void add(Long produitId, LocalDate date, int quantite, int nombre) {
+        add(produitId, date.toEpochDay(), quantite, nombre);
+    }
+
+    /**
+     * Daily quantities of a product, oldest first (to be read, not modified).
+     */
+    public int[] getQuantites(Long produitId) {
+        return quantites.getOrDefault(produitId, aucuneVente);
+    }
+
+    /**
+     * Number of sales of a product in the window.
+     */
+    public long getNombreVentes(Long produitId) {
+        return nombreVentes.getOrDefault(produitId, 0L);
+    }
+
+    public LocalDate getPremierJour() {
+        return LocalDate.ofEpochDay(premierJour);
+    }
+
+    /**
+     * Day of week of the first day (0 = Monday).
+     */
+    public int getPremierJourSemaine() {
+        return getPremierJour().getDayOfWeek().ordinal();
+    }
+
+    public int getJours() {
+        return jours;
+    }
+}
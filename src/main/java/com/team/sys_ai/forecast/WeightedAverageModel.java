@@ -0,0 +1,39 @@
+package com.team.sys_ai.forecast;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Historical heuristic: 70% average daily sales over the whole history,
+ * 30% average daily sales over the last 30 days. Days without sales count as zero.
+ */
+@Component
+public class WeightedAverageModel implements ForecastModel {
+
+    public static final String NAME = "weighted-average";
+
+    private static final int RECENT_DAYS = 30;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public double forecast(int[] ventes, int length, int premierJour, int horizon) {
+        if (length == 0) {
+            return 0;
+        }
+        int recentFrom = Math.max(0, length - RECENT_DAYS);
+        long total = 0;
+        long recent = 0;
+        for (int i = 0; i < length; i++) {
+            total += ventes[i];
+            if (i >= recentFrom) {
+                recent += ventes[i];
+            }
+        }
+        double moyenne = (double) total / length;
+        double moyenneRecente = (double) recent / (length - recentFrom);
+        return (moyenne * 0.7 + moyenneRecente * 0.3) * horizon;
+    }
+}
@@ -22,6 +22,7 @@ public interface PrevisionMapper {
     @Mapping(target = "produit", ignore = true)
     @Mapping(target = "entrepot", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "derniere", ignore = true) // Set by service
     Prevision toEntity(PrevisionDTO dto);
 
     List<PrevisionDTO> toDTOList(List<Prevision> previsions);
@@ -21,6 +21,7 @@ public interface UserMapper {
     @Mapping(target = "lastLogin", ignore = true)
     @Mapping(target = "entrepotAssigne", ignore = true)
     @Mapping(target = "password", ignore = true) // Password handled separately
+    @Mapping(target = "tokenVersion", ignore = true) // Bumped on revocation only
     @Mapping(target = "actif", constant = "true")
     User toEntity(UserCreateDTO dto);
 
@@ -29,6 +30,7 @@ public interface UserMapper {
     @Mapping(target = "lastLogin", ignore = true)
     @Mapping(target = "entrepotAssigne", ignore = true)
     @Mapping(target = "password", ignore = true)
+    @Mapping(target = "tokenVersion", ignore = true)
     void updateEntity(UserDTO dto, @MappingTarget User user);
 
     List<UserDTO> toDTOList(List<User> users);
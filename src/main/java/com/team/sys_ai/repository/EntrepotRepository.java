@@ -1,8 +1,11 @@
 package com.team.sys_ai.repository;
 
 import com.team.sys_ai.entity.Entrepot;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,6 +14,8 @@ import java.util.Optional;
 @Repository
 public interface EntrepotRepository extends JpaRepository<Entrepot, Long> {
 
+    // Query cache: served from the second-level cache until the entrepots table is written
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Entrepot> findByActifTrue();
 
     List<Entrepot> findByActifFalse();
@@ -1,37 +1,63 @@
 package com.team.sys_ai.repository;
 
+import com.team.sys_ai.dto.HistoriqueVenteDTO;
 import com.team.sys_ai.entity.HistoriqueVente;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface HistoriqueVenteRepository extends JpaRepository<HistoriqueVente, Long> {
 
+        /**
+         * DTO projection: sale with product/warehouse names, without loading entities.
+         * Product and warehouse are joined on the foreign key values, so that filters on
+         * h.entrepot.id apply to the sale's own columns (and indexes).
+         */
+        String DTO_SELECT = "SELECT new com.team.sys_ai.dto.HistoriqueVenteDTO(h.id, p.id, p.nom, e.id, e.nom, " +
+                        "h.dateVente, h.quantiteVendue, h.jourSemaine, h.mois, h.annee) " +
+                        "FROM HistoriqueVente h JOIN Produit p ON p.id = h.produit.id " +
+                        "JOIN Entrepot e ON e.id = h.entrepot.id ";
+
+        // Entity graphs: product and warehouse fetched with the rows, read by HistoriqueVenteMapper
+        @EntityGraph(attributePaths = {"produit", "entrepot"})
         List<HistoriqueVente> findByEntrepotId(Long entrepotId);
 
         // Paginated version
+        @EntityGraph(attributePaths = {"produit", "entrepot"})
         Page<HistoriqueVente> findByEntrepotId(Long entrepotId, Pageable pageable);
 
+        long countByEntrepotId(Long entrepotId);
+
         List<HistoriqueVente> findByProduitId(Long produitId);
 
+        @EntityGraph(attributePaths = {"produit", "entrepot"})
         List<HistoriqueVente> findByProduitIdAndEntrepotId(Long produitId, Long entrepotId);
 
         // Paginated version
+        @EntityGraph(attributePaths = {"produit", "entrepot"})
         Page<HistoriqueVente> findByProduitIdAndEntrepotId(Long produitId, Long entrepotId, Pageable pageable);
 
         List<HistoriqueVente> findByDateVenteBetween(LocalDate startDate, LocalDate endDate);
 
+        @EntityGraph(attributePaths = {"produit", "entrepot"})
         List<HistoriqueVente> findByEntrepotIdAndDateVenteBetween(Long entrepotId, LocalDate startDate,
                         LocalDate endDate);
 
         // Paginated version
+        @EntityGraph(attributePaths = {"produit", "entrepot"})
         Page<HistoriqueVente> findByEntrepotIdAndDateVenteBetween(Long entrepotId, LocalDate startDate,
                         LocalDate endDate, Pageable pageable);
 
@@ -95,4 +121,36 @@ public interface HistoriqueVenteRepository extends JpaRepository<HistoriqueVente
                         @Param("produitId") Long produitId,
                         @Param("entrepotId") Long entrepotId,
                         @Param("startDate") LocalDate startDate);
+
+        /**
+         * Forward-only cursor over the sales of a warehouse, for exports.
+         * Rows are DTOs (not managed entities) so the persistence context does not grow;
+         * must be consumed and closed inside a transaction.
+         */
+        @QueryHints({
+                        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+                        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+                        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+        })
+        @Query(DTO_SELECT +
+                        "WHERE h.entrepot.id = :entrepotId AND h.dateVente BETWEEN :startDate AND :endDate " +
+                        "ORDER BY h.dateVente, h.id")
+        Stream<HistoriqueVenteDTO> streamDTOsByEntrepotId(
+                        @Param("entrepotId") Long entrepotId,
+                        @Param("startDate") LocalDate startDate,
+                        @Param("endDate") LocalDate endDate);
+
+        /**
+         * Keyset page: sales of a warehouse strictly after the (dateVente, id) position,
+         * newest first. Cost does not depend on how deep the position is.
+         */
+        @Query(DTO_SELECT +
+                        "WHERE h.entrepot.id = :entrepotId " +
+                        "AND (h.dateVente < :dateVente OR (h.dateVente = :dateVente AND h.id < :id)) " +
+                        "ORDER BY h.dateVente DESC, h.id DESC")
+        List<HistoriqueVenteDTO> findDTOsByEntrepotIdBefore(
+                        @Param("entrepotId") Long entrepotId,
+                        @Param("dateVente") LocalDate dateVente,
+                        @Param("id") Long id,
+                        Limit limit);
 }
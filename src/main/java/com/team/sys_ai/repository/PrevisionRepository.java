@@ -1,32 +1,68 @@
 package com.team.sys_ai.repository;
 
+import com.team.sys_ai.dto.PrevisionDTO;
 import com.team.sys_ai.entity.NiveauRisque;
 import com.team.sys_ai.entity.Prevision;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PrevisionRepository extends JpaRepository<Prevision, Long> {
 
+        /**
+         * DTO projection: prediction with product/warehouse names and the current stock
+         * of the product in the warehouse, in a single query (no lazy loads, no per-row stock lookup).
+         * Product and warehouse are joined on the foreign key values, so that filters on
+         * p.produit.id / p.entrepot.id apply to the prediction's own columns (and indexes).
+         */
+        String DTO_SELECT = "SELECT new com.team.sys_ai.dto.PrevisionDTO(" +
+                        "p.id, pr.id, pr.nom, e.id, e.nom, p.datePrevision, p.quantitePrevue30Jours, " +
+                        "p.niveauConfiance, p.recommandation, p.quantiteRecommandee, p.niveauRisque, p.createdAt, " +
+                        "s.quantiteDisponible, s.seuilAlerte) " +
+                        "FROM Prevision p JOIN Produit pr ON pr.id = p.produit.id " +
+                        "JOIN Entrepot e ON e.id = p.entrepot.id " +
+                        "LEFT JOIN Stock s ON s.produit = pr AND s.entrepot = e ";
+
         List<Prevision> findByEntrepotId(Long entrepotId);
 
         // Paginated version
         Page<Prevision> findByEntrepotId(Long entrepotId, Pageable pageable);
 
+        long countByEntrepotId(Long entrepotId);
+
         List<Prevision> findByProduitId(Long produitId);
 
         List<Prevision> findByProduitIdAndEntrepotId(Long produitId, Long entrepotId);
 
+        Optional<Prevision> findByProduitIdAndEntrepotIdAndDatePrevision(
+                        Long produitId, Long entrepotId, LocalDate datePrevision);
+
+        List<Prevision> findByEntrepotIdAndDatePrevision(Long entrepotId, LocalDate datePrevision);
+
+        @Query("SELECT p FROM Prevision p " +
+                        "WHERE p.entrepot.id = :entrepotId AND p.produit.id IN :produitIds " +
+                        "AND p.datePrevision = :datePrevision")
+        List<Prevision> findByEntrepotIdAndProduitIdsAndDatePrevision(
+                        @Param("entrepotId") Long entrepotId,
+                        @Param("produitIds") Collection<Long> produitIds,
+                        @Param("datePrevision") LocalDate datePrevision);
+
+        /**
+         * Latest prediction of a product in a warehouse (flagged row, no sort over the history).
+         */
         @Query("SELECT p FROM Prevision p " +
-                        "WHERE p.produit.id = :produitId AND p.entrepot.id = :entrepotId " +
+                        "WHERE p.produit.id = :produitId AND p.entrepot.id = :entrepotId AND p.derniere = true " +
                         "ORDER BY p.datePrevision DESC, p.createdAt DESC")
         List<Prevision> findLatestPrediction(
                         @Param("produitId") Long produitId,
@@ -49,25 +85,25 @@ public interface PrevisionRepository extends JpaRepository<Prevision, Long> {
 
         @Query("SELECT p FROM Prevision p " +
                         "WHERE p.entrepot.id = :entrepotId " +
-                        "AND p.niveauRisque IN ('ELEVE', 'CRITIQUE') " +
+                        "AND p.derniere = true AND p.niveauRisque IN ('ELEVE', 'CRITIQUE') " +
                         "ORDER BY p.niveauRisque DESC, p.datePrevision DESC")
         List<Prevision> findHighRiskPredictions(@Param("entrepotId") Long entrepotId);
 
         // Paginated version
         @Query("SELECT p FROM Prevision p " +
                         "WHERE p.entrepot.id = :entrepotId " +
-                        "AND p.niveauRisque IN ('ELEVE', 'CRITIQUE') " +
+                        "AND p.derniere = true AND p.niveauRisque IN ('ELEVE', 'CRITIQUE') " +
                         "ORDER BY p.niveauRisque DESC, p.datePrevision DESC")
         Page<Prevision> findHighRiskPredictions(@Param("entrepotId") Long entrepotId, Pageable pageable);
 
         @Query("SELECT p FROM Prevision p " +
-                        "WHERE p.niveauRisque IN ('ELEVE', 'CRITIQUE') " +
+                        "WHERE p.derniere = true AND p.niveauRisque IN ('ELEVE', 'CRITIQUE') " +
                         "ORDER BY p.niveauRisque DESC, p.datePrevision DESC")
         List<Prevision> findAllHighRiskPredictions();
 
         // Paginated version
         @Query("SELECT p FROM Prevision p " +
-                        "WHERE p.niveauRisque IN ('ELEVE', 'CRITIQUE') " +
+                        "WHERE p.derniere = true AND p.niveauRisque IN ('ELEVE', 'CRITIQUE') " +
                         "ORDER BY p.niveauRisque DESC, p.datePrevision DESC")
         Page<Prevision> findAllHighRiskPredictions(Pageable pageable);
 
@@ -78,6 +114,128 @@ public interface PrevisionRepository extends JpaRepository<Prevision, Long> {
                         @Param("entrepotId") Long entrepotId,
                         Pageable pageable);
 
-        @Query("DELETE FROM Prevision p WHERE p.datePrevision < :cutoffDate")
-        void deleteOldPredictions(@Param("cutoffDate") LocalDate cutoffDate);
+        /**
+         * Delete the history older than the cutoff; the latest prediction of each
+         * product/warehouse is kept whatever its date.
+         */
+        @Modifying
+        @Query("DELETE FROM Prevision p WHERE p.datePrevision < :cutoffDate AND p.derniere = false")
+        int deleteOldPredictions(@Param("cutoffDate") LocalDate cutoffDate);
+
+        /**
+         * Clear the latest flag of some products of a warehouse, before their new predictions are saved.
+         */
+        @Modifying
+        @Query("UPDATE Prevision p SET p.derniere = false " +
+                        "WHERE p.entrepot.id = :entrepotId AND p.produit.id IN :produitIds AND p.derniere = true")
+        int clearDerniere(@Param("entrepotId") Long entrepotId, @Param("produitIds") Collection<Long> produitIds);
+
+        /**
+         * Clear the latest flag of every stocked product of a warehouse not predicted on this day yet,
+         * before the predictions of the whole warehouse are saved.
+         */
+        @Modifying
+        @Query("UPDATE Prevision p SET p.derniere = false " +
+                        "WHERE p.entrepot.id = :entrepotId AND p.derniere = true " +
+                        "AND p.datePrevision < :datePrevision " +
+                        "AND EXISTS (SELECT 1 FROM Stock s " +
+                        "WHERE s.entrepot.id = p.entrepot.id AND s.produit.id = p.produit.id)")
+        int clearDerniereBefore(@Param("entrepotId") Long entrepotId, @Param("datePrevision") LocalDate datePrevision);
+
+        boolean existsByDerniereTrue();
+
+        /**
+         * Keep only the most recent row of each product/warehouse/day (databases written
+         * before predictions were upserted).
+         */
+        @Modifying
+        @Query("DELETE FROM Prevision p WHERE EXISTS (SELECT q.id FROM Prevision q " +
+                        "WHERE q.produit = p.produit AND q.entrepot = p.entrepot " +
+                        "AND q.datePrevision = p.datePrevision AND q.id > p.id)")
+        int deleteDuplicates();
+
+        /**
+         * Flag the most recent prediction of every product/warehouse.
+         */
+        @Modifying
+        @Query("UPDATE Prevision p SET p.derniere = true WHERE p.datePrevision = (" +
+                        "SELECT MAX(q.datePrevision) FROM Prevision q " +
+                        "WHERE q.produit = p.produit AND q.entrepot = p.entrepot)")
+        int markDerniere();
+
+        /**
+         * Set the AI text of a prediction, unless the prediction was regenerated since the
+         * text was requested (same-day regeneration updates the row in place): the predicted
+         * sales, risk level and recommended quantity (which follows the stock and the threshold)
+         * must still be the ones the prompt was built from.
+         */
+        @Modifying
+        @Query("UPDATE Prevision p SET p.recommandation = :recommandation " +
+                        "WHERE p.id = :id AND p.quantitePrevue30Jours = :quantitePrevue30Jours " +
+                        "AND p.niveauRisque = :niveauRisque AND p.quantiteRecommandee = :quantiteRecommandee")
+        int updateRecommandation(
+                        @Param("id") Long id,
+                        @Param("quantitePrevue30Jours") Integer quantitePrevue30Jours,
+                        @Param("niveauRisque") NiveauRisque niveauRisque,
+                        @Param("quantiteRecommandee") Integer quantiteRecommandee,
+                        @Param("recommandation") String recommandation);
+
+        @Query(DTO_SELECT + "WHERE p.entrepot.id = :entrepotId")
+        List<PrevisionDTO> findDTOsByEntrepotId(@Param("entrepotId") Long entrepotId);
+
+        // Paginated version
+        @Query(value = DTO_SELECT + "WHERE p.entrepot.id = :entrepotId",
+                        countQuery = "SELECT COUNT(p) FROM Prevision p WHERE p.entrepot.id = :entrepotId")
+        Page<PrevisionDTO> findDTOsByEntrepotId(@Param("entrepotId") Long entrepotId, Pageable pageable);
+
+        @Query(DTO_SELECT +
+                        "WHERE p.entrepot.id = :entrepotId " +
+                        "AND p.derniere = true AND p.niveauRisque IN ('ELEVE', 'CRITIQUE') " +
+                        "ORDER BY p.niveauRisque DESC, p.datePrevision DESC")
+        List<PrevisionDTO> findHighRiskDTOs(@Param("entrepotId") Long entrepotId);
+
+        // Paginated version
+        @Query(value = DTO_SELECT +
+                        "WHERE p.entrepot.id = :entrepotId " +
+                        "AND p.derniere = true AND p.niveauRisque IN ('ELEVE', 'CRITIQUE') " +
+                        "ORDER BY p.niveauRisque DESC, p.datePrevision DESC",
+                        countQuery = "SELECT COUNT(p) FROM Prevision p " +
+                                        "WHERE p.entrepot.id = :entrepotId " +
+                                        "AND p.derniere = true AND p.niveauRisque IN ('ELEVE', 'CRITIQUE')")
+        Page<PrevisionDTO> findHighRiskDTOs(@Param("entrepotId") Long entrepotId, Pageable pageable);
+
+        @Query(DTO_SELECT +
+                        "WHERE p.derniere = true AND p.niveauRisque IN ('ELEVE', 'CRITIQUE') " +
+                        "ORDER BY p.niveauRisque DESC, p.datePrevision DESC")
+        List<PrevisionDTO> findAllHighRiskDTOs();
+
+        // Paginated version
+        @Query(value = DTO_SELECT +
+                        "WHERE p.derniere = true AND p.niveauRisque IN ('ELEVE', 'CRITIQUE') " +
+                        "ORDER BY p.niveauRisque DESC, p.datePrevision DESC",
+                        countQuery = "SELECT COUNT(p) FROM Prevision p " +
+                                        "WHERE p.derniere = true AND p.niveauRisque IN ('ELEVE', 'CRITIQUE')")
+        Page<PrevisionDTO> findAllHighRiskDTOs(Pageable pageable);
+
+        @Query(DTO_SELECT +
+                        "WHERE p.produit.id = :produitId AND p.entrepot.id = :entrepotId AND p.derniere = true " +
+                        "ORDER BY p.datePrevision DESC, p.createdAt DESC")
+        List<PrevisionDTO> findLatestDTO(
+                        @Param("produitId") Long produitId,
+                        @Param("entrepotId") Long entrepotId,
+                        Pageable pageable);
+
+        /**
+         * Keyset page: predictions of a warehouse strictly after the (datePrevision, id) position,
+         * newest first.
+         */
+        @Query(DTO_SELECT +
+                        "WHERE p.entrepot.id = :entrepotId " +
+                        "AND (p.datePrevision < :datePrevision OR (p.datePrevision = :datePrevision AND p.id < :id)) " +
+                        "ORDER BY p.datePrevision DESC, p.id DESC")
+        List<PrevisionDTO> findDTOsByEntrepotIdBefore(
+                        @Param("entrepotId") Long entrepotId,
+                        @Param("datePrevision") LocalDate datePrevision,
+                        @Param("id") Long id,
+                        Limit limit);
 }
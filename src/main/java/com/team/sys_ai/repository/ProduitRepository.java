@@ -1,10 +1,13 @@
 package com.team.sys_ai.repository;
 
 import com.team.sys_ai.entity.Produit;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -14,6 +17,8 @@ import java.util.Optional;
 @Repository
 public interface ProduitRepository extends JpaRepository<Produit, Long> {
 
+        // Query cache: served from the second-level cache until the produits table is written
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
         List<Produit> findByActifTrue();
 
         // Paginated version
@@ -35,6 +40,7 @@ public interface ProduitRepository extends JpaRepository<Produit, Long> {
 
         boolean existsByNomIgnoreCase(String nom);
 
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
         @Query("SELECT DISTINCT p.categorie FROM Produit p WHERE p.categorie IS NOT NULL ORDER BY p.categorie")
         List<String> findAllCategories();
 
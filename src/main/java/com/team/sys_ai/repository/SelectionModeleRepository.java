@@ -0,0 +1,31 @@
+package com.team.sys_ai.repository;
+
+import com.team.sys_ai.entity.SelectionModele;
+import com.team.sys_ai.entity.SelectionModeleId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SelectionModeleRepository extends JpaRepository<SelectionModele, SelectionModeleId> {
+
+        List<SelectionModele> findByEntrepotId(Long entrepotId);
+
+        @Query("SELECT s FROM SelectionModele s " +
+                        "WHERE s.entrepotId = :entrepotId AND s.produitId IN :produitIds")
+        List<SelectionModele> findByEntrepotIdAndProduitIds(
+                        @Param("entrepotId") Long entrepotId,
+                        @Param("produitIds") Collection<Long> produitIds);
+
+        @Query("SELECT s.modele, COUNT(s) FROM SelectionModele s GROUP BY s.modele")
+        List<Object[]> countByModele();
+
+        @Modifying
+        @Query("DELETE FROM SelectionModele s WHERE s.entrepotId = :entrepotId")
+        int deleteByEntrepotId(@Param("entrepotId") Long entrepotId);
+}
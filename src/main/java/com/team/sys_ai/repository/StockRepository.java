@@ -1,13 +1,17 @@
 package com.team.sys_ai.repository;
 
 import com.team.sys_ai.entity.Stock;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,26 +20,34 @@ public interface StockRepository extends JpaRepository<Stock, Long> {
 
     List<Stock> findByEntrepotId(Long entrepotId);
 
+    // Entity graphs: product and warehouse fetched with the rows, read by StockMapper
     // Paginated version
+    @EntityGraph(attributePaths = {"produit", "entrepot"})
     Page<Stock> findByEntrepotId(Long entrepotId, Pageable pageable);
 
+    long countByEntrepotId(Long entrepotId);
+
     List<Stock> findByProduitId(Long produitId);
 
     Optional<Stock> findByEntrepotIdAndProduitId(Long entrepotId, Long produitId);
 
     boolean existsByEntrepotIdAndProduitId(Long entrepotId, Long produitId);
 
+    @EntityGraph(attributePaths = {"produit", "entrepot"})
     @Query("SELECT s FROM Stock s WHERE s.quantiteDisponible <= s.seuilAlerte")
     List<Stock> findStocksAtAlertLevel();
 
     // Paginated version
+    @EntityGraph(attributePaths = {"produit", "entrepot"})
     @Query("SELECT s FROM Stock s WHERE s.quantiteDisponible <= s.seuilAlerte")
     Page<Stock> findStocksAtAlertLevel(Pageable pageable);
 
+    @EntityGraph(attributePaths = {"produit", "entrepot"})
     @Query("SELECT s FROM Stock s WHERE s.entrepot.id = :entrepotId AND s.quantiteDisponible <= s.seuilAlerte")
     List<Stock> findStocksAtAlertLevelByEntrepot(@Param("entrepotId") Long entrepotId);
 
     // Paginated version
+    @EntityGraph(attributePaths = {"produit", "entrepot"})
     @Query("SELECT s FROM Stock s WHERE s.entrepot.id = :entrepotId AND s.quantiteDisponible <= s.seuilAlerte")
     Page<Stock> findStocksAtAlertLevelByEntrepot(@Param("entrepotId") Long entrepotId, Pageable pageable);
 
@@ -46,10 +58,12 @@ public interface StockRepository extends JpaRepository<Stock, Long> {
     @Query("SELECT s FROM Stock s WHERE s.quantiteDisponible <= s.seuilAlerte / 2")
     Page<Stock> findCriticalStocks(Pageable pageable);
 
+    @EntityGraph(attributePaths = {"produit", "entrepot"})
     @Query("SELECT s FROM Stock s WHERE s.entrepot.id = :entrepotId AND s.quantiteDisponible <= s.seuilAlerte / 2")
     List<Stock> findCriticalStocksByEntrepot(@Param("entrepotId") Long entrepotId);
 
     // Paginated version
+    @EntityGraph(attributePaths = {"produit", "entrepot"})
     @Query("SELECT s FROM Stock s WHERE s.entrepot.id = :entrepotId AND s.quantiteDisponible <= s.seuilAlerte / 2")
     Page<Stock> findCriticalStocksByEntrepot(@Param("entrepotId") Long entrepotId, Pageable pageable);
 
@@ -59,6 +73,9 @@ public interface StockRepository extends JpaRepository<Stock, Long> {
     @Query("SELECT s FROM Stock s WHERE s.entrepot.id = :entrepotId AND s.quantiteDisponible = 0")
     List<Stock> findOutOfStockByEntrepot(@Param("entrepotId") Long entrepotId);
 
+    @Query("SELECT COUNT(s) FROM Stock s WHERE s.entrepot.id = :entrepotId AND s.quantiteDisponible <= s.seuilAlerte")
+    long countStocksAtAlertLevelByEntrepot(@Param("entrepotId") Long entrepotId);
+
     @Query("SELECT COALESCE(SUM(s.quantiteDisponible), 0) FROM Stock s WHERE s.produit.id = :produitId")
     Integer getTotalQuantityByProduit(@Param("produitId") Long produitId);
 
@@ -68,4 +85,59 @@ public interface StockRepository extends JpaRepository<Stock, Long> {
             "WHERE e.id = :entrepotId AND p.actif = true " +
             "ORDER BY p.nom")
     List<Stock> findByEntrepotIdWithDetails(@Param("entrepotId") Long entrepotId);
+
+    @Query("SELECT s FROM Stock s " +
+            "JOIN FETCH s.produit " +
+            "WHERE s.entrepot.id = :entrepotId")
+    List<Stock> findByEntrepotIdWithProduit(@Param("entrepotId") Long entrepotId);
+
+    @Query("SELECT s FROM Stock s " +
+            "JOIN FETCH s.produit " +
+            "WHERE s.entrepot.id = :entrepotId AND s.produit.id IN :produitIds")
+    List<Stock> findByEntrepotIdAndProduitIdsWithProduit(
+            @Param("entrepotId") Long entrepotId,
+            @Param("produitIds") Collection<Long> produitIds);
+
+    /**
+     * Keyset page: stocks of a warehouse with an id greater than afterId, in id order.
+     */
+    @Query("SELECT s FROM Stock s " +
+            "JOIN FETCH s.produit " +
+            "JOIN FETCH s.entrepot " +
+            "WHERE s.entrepot.id = :entrepotId AND s.id > :afterId " +
+            "ORDER BY s.id")
+    List<Stock> findByEntrepotIdAfter(
+            @Param("entrepotId") Long entrepotId,
+            @Param("afterId") Long afterId,
+            Limit limit);
+
+    @Query("SELECT s.quantiteDisponible FROM Stock s " +
+            "WHERE s.entrepot.id = :entrepotId AND s.produit.id = :produitId")
+    Optional<Integer> findQuantity(@Param("entrepotId") Long entrepotId, @Param("produitId") Long produitId);
+
+    /**
+     * Atomic conditional decrement: updates nothing (returns 0) if the stock is missing or insufficient.
+     * The persistence context is cleared so that later reads see the new quantity.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Stock s SET s.quantiteDisponible = s.quantiteDisponible - :quantite, " +
+            "s.lastUpdated = CURRENT_TIMESTAMP " +
+            "WHERE s.entrepot.id = :entrepotId AND s.produit.id = :produitId " +
+            "AND s.quantiteDisponible >= :quantite")
+    int decrementQuantity(
+            @Param("entrepotId") Long entrepotId,
+            @Param("produitId") Long produitId,
+            @Param("quantite") int quantite);
+
+    /**
+     * Atomic increment: returns 0 if the stock does not exist.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Stock s SET s.quantiteDisponible = s.quantiteDisponible + :quantite, " +
+            "s.lastUpdated = CURRENT_TIMESTAMP " +
+            "WHERE s.entrepot.id = :entrepotId AND s.produit.id = :produitId")
+    int incrementQuantity(
+            @Param("entrepotId") Long entrepotId,
+            @Param("produitId") Long produitId,
+            @Param("quantite") int quantite);
 }
\ No newline at end of file
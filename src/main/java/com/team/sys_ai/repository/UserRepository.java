@@ -4,6 +4,7 @@ import com.team.sys_ai.entity.Role;
 import com.team.sys_ai.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -25,14 +26,27 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     List<User> findByEntrepotAssigneId(Long entrepotId);
 
+    // Entity graphs: assigned warehouse fetched with the users, read by UserMapper
+    @EntityGraph(attributePaths = "entrepotAssigne")
+    @Override
+    List<User> findAll();
+
+    @EntityGraph(attributePaths = "entrepotAssigne")
+    @Override
+    Page<User> findAll(Pageable pageable);
+
+    @EntityGraph(attributePaths = "entrepotAssigne")
     List<User> findByRole(Role role);
 
     // Paginated version
+    @EntityGraph(attributePaths = "entrepotAssigne")
     Page<User> findByRole(Role role, Pageable pageable);
 
+    @EntityGraph(attributePaths = "entrepotAssigne")
     List<User> findByActifTrue();
 
     // Paginated version
+    @EntityGraph(attributePaths = "entrepotAssigne")
     Page<User> findByActifTrue(Pageable pageable);
 
     List<User> findByActifTrueAndRole(Role role);
@@ -40,6 +54,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.login = :login AND u.actif = true")
     Optional<User> findActiveByLogin(@Param("login") String login);
 
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.entrepotAssigne WHERE u.login = :login AND u.actif = true")
+    Optional<User> findActiveByLoginWithEntrepot(@Param("login") String login);
+
+    @Query("SELECT u.id AS id, u.actif AS actif, u.tokenVersion AS tokenVersion FROM User u")
+    List<UserTokenState> findAllTokenStates();
+
     long countByRole(Role role);
 
     @Query("SELECT u FROM User u WHERE u.role = 'GESTIONNAIRE' AND u.entrepotAssigne IS NULL")
@@ -0,0 +1,13 @@
+package com.team.sys_ai.repository;
+
+/**
+ * Token revocation state of a user, used by the stateless JWT mode.
+ */
+public interface UserTokenState {
+
+    Long getId();
+
+    Boolean getActif();
+
+    Integer getTokenVersion();
+}
@@ -0,0 +1,140 @@
+package com.team.sys_ai.repository;
+
+import com.team.sys_ai.entity.VenteJournaliere;
+import com.team.sys_ai.entity.VenteJournaliereId;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface VenteJournaliereRepository extends JpaRepository<VenteJournaliere, VenteJournaliereId> {
+
+        /**
+         * Insert the rollup row of the day or add to it, in one statement. On PostgreSQL it is an
+         * atomic INSERT ... ON CONFLICT DO UPDATE: concurrent first sales of a product/warehouse/day
+         * cannot both insert the row. H2 (dev, tests) runs it as a MERGE, which does not wait for
+         * a concurrent insert; sales are serialized there by the stock row lock of recordSale.
+         */
+        @Modifying
+        @Query("INSERT INTO VenteJournaliere " +
+                        "(produitId, entrepotId, dateVente, quantiteTotale, nombreVentes, jourSemaine, mois, annee) " +
+                        "VALUES (:produitId, :entrepotId, :dateVente, :quantite, :nombreVentes, " +
+                        ":jourSemaine, :mois, :annee) " +
+                        "ON CONFLICT (produitId, entrepotId, dateVente) DO UPDATE " +
+                        "SET quantiteTotale = quantiteTotale + excluded.quantiteTotale, " +
+                        "nombreVentes = nombreVentes + excluded.nombreVentes")
+        int upsert(
+                        @Param("produitId") Long produitId,
+                        @Param("entrepotId") Long entrepotId,
+                        @Param("dateVente") LocalDate dateVente,
+                        @Param("quantite") int quantite,
+                        @Param("nombreVentes") int nombreVentes,
+                        @Param("jourSemaine") DayOfWeek jourSemaine,
+                        @Param("mois") int mois,
+                        @Param("annee") int annee);
+
+        /**
+         * Add sales to the rollup row of the day, creating it on the first sale.
+         */
+        default void addSales(Long produitId, Long entrepotId, LocalDate dateVente, int quantite, int nombreVentes) {
+                upsert(produitId, entrepotId, dateVente, quantite, nombreVentes,
+                                dateVente.getDayOfWeek(), dateVente.getMonthValue(), dateVente.getYear());
+        }
+
+        @Modifying
+        @Query("DELETE FROM VenteJournaliere v")
+        void deleteAllInBulk();
+
+        // Rebuild the whole rollup from the raw sales history
+        @Modifying
+        @Query(value = "INSERT INTO ventes_journalieres " +
+                        "(produit_id, entrepot_id, date_vente, quantite_totale, nombre_ventes, jour_semaine, mois, annee) " +
+                        "SELECT h.produit_id, h.entrepot_id, h.date_vente, SUM(h.quantite_vendue), COUNT(*), " +
+                        "MIN(h.jour_semaine), MIN(h.mois), MIN(h.annee) " +
+                        "FROM historique_ventes h " +
+                        "GROUP BY h.produit_id, h.entrepot_id, h.date_vente", nativeQuery = true)
+        int rebuildFromHistorique();
+
+        // Build the rollup of one warehouse whose sales were loaded in bulk
+        @Modifying
+        @Query(value = "INSERT INTO ventes_journalieres " +
+                        "(produit_id, entrepot_id, date_vente, quantite_totale, nombre_ventes, jour_semaine, mois, annee) " +
+                        "SELECT h.produit_id, h.entrepot_id, h.date_vente, SUM(h.quantite_vendue), COUNT(*), " +
+                        "MIN(h.jour_semaine), MIN(h.mois), MIN(h.annee) " +
+                        "FROM historique_ventes h WHERE h.entrepot_id = :entrepotId " +
+                        "GROUP BY h.produit_id, h.entrepot_id, h.date_vente", nativeQuery = true)
+        int rebuildFromHistoriqueForEntrepot(@Param("entrepotId") Long entrepotId);
+
+        @Query("SELECT COALESCE(SUM(v.quantiteTotale), 0) FROM VenteJournaliere v " +
+                        "WHERE v.produitId = :produitId AND v.entrepotId = :entrepotId " +
+                        "AND v.dateVente BETWEEN :startDate AND :endDate")
+        Integer getTotalQuantitySold(
+                        @Param("produitId") Long produitId,
+                        @Param("entrepotId") Long entrepotId,
+                        @Param("startDate") LocalDate startDate,
+                        @Param("endDate") LocalDate endDate);
+
+        // Daily rows of a product since a date, used to build its forecast history
+        @Query("SELECT v.dateVente, v.quantiteTotale, v.nombreVentes FROM VenteJournaliere v " +
+                        "WHERE v.produitId = :produitId AND v.entrepotId = :entrepotId " +
+                        "AND v.dateVente >= :since")
+        List<Object[]> findDailySales(
+                        @Param("produitId") Long produitId,
+                        @Param("entrepotId") Long entrepotId,
+                        @Param("since") LocalDate since);
+
+        // Batch version: daily rows of every product of a warehouse
+        @Query("SELECT v.produitId, v.dateVente, v.quantiteTotale, v.nombreVentes FROM VenteJournaliere v " +
+                        "WHERE v.entrepotId = :entrepotId AND v.dateVente >= :since")
+        List<Object[]> findDailySalesByEntrepot(
+                        @Param("entrepotId") Long entrepotId,
+                        @Param("since") LocalDate since);
+
+        @Query("SELECT v.jourSemaine, SUM(v.quantiteTotale) FROM VenteJournaliere v " +
+                        "WHERE v.produitId = :produitId AND v.entrepotId = :entrepotId " +
+                        "GROUP BY v.jourSemaine")
+        List<Object[]> getSalesByDayOfWeek(
+                        @Param("produitId") Long produitId,
+                        @Param("entrepotId") Long entrepotId);
+
+        @Query("SELECT v.annee, v.mois, SUM(v.quantiteTotale) FROM VenteJournaliere v " +
+                        "WHERE v.produitId = :produitId AND v.entrepotId = :entrepotId " +
+                        "GROUP BY v.annee, v.mois " +
+                        "ORDER BY v.annee DESC, v.mois DESC")
+        List<Object[]> getMonthlySales(
+                        @Param("produitId") Long produitId,
+                        @Param("entrepotId") Long entrepotId);
+
+        @Query("SELECT p.id, p.nom, SUM(v.quantiteTotale) as totalSold " +
+                        "FROM VenteJournaliere v JOIN Produit p ON p.id = v.produitId " +
+                        "WHERE v.entrepotId = :entrepotId AND v.dateVente >= :since " +
+                        "GROUP BY p.id, p.nom " +
+                        "ORDER BY totalSold DESC")
+        List<Object[]> getTopSellingProducts(
+                        @Param("entrepotId") Long entrepotId,
+                        @Param("since") LocalDate since,
+                        Pageable pageable);
+
+        @Query("SELECT MIN(v.dateVente) FROM VenteJournaliere v")
+        LocalDate findEarliestDateVente();
+
+        // Forward-only read of the rollup since a date, used to load SalesSeriesStore
+        @QueryHints({
+                        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+                        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+        })
+        @Query("SELECT v.produitId, v.entrepotId, v.dateVente, v.quantiteTotale, v.nombreVentes " +
+                        "FROM VenteJournaliere v WHERE v.dateVente >= :since")
+        Stream<Object[]> streamSince(@Param("since") LocalDate since);
+}
@@ -1,5 +1,7 @@
 package com.team.sys_ai.security;
 
+import com.team.sys_ai.entity.Entrepot;
+import com.team.sys_ai.entity.Role;
 import com.team.sys_ai.entity.User;
 import com.team.sys_ai.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -19,15 +21,24 @@ import java.util.Collections;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findActiveByLogin(username)
+        User user = userRepository.findActiveByLoginWithEntrepot(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé: " + username));
 
         return new CustomUserDetails(user);
     }
 
+    /**
+     * Same as loadUserByUsername, through the principal cache (used by the JWT filter).
+     * The assigned warehouse is fetched eagerly so the cached user is usable outside its session.
+     */
+    public CustomUserDetails loadCachedUserByUsername(String username) throws UsernameNotFoundException {
+        return userPrincipalCache.get(username, login -> (CustomUserDetails) loadUserByUsername(login));
+    }
+
     /**
      * Custom UserDetails wrapper for User entity.
      */
@@ -39,6 +50,20 @@ public class CustomUserDetailsService implements UserDetailsService {
             this.user = user;
         }
 
+        /**
+         * Principal rebuilt from verified token claims (stateless mode, no database access).
+         * The user is transient: only id, login, role and assigned warehouse id are set.
+         */
+        public static CustomUserDetails fromClaims(Long userId, String login, Role role, Long entrepotId) {
+            return new CustomUserDetails(User.builder()
+                    .id(userId)
+                    .login(login)
+                    .role(role)
+                    .actif(true)
+                    .entrepotAssigne(entrepotId != null ? Entrepot.builder().id(entrepotId).build() : null)
+                    .build());
+        }
+
         public User getUser() {
             return user;
         }
@@ -1,10 +1,13 @@
 package com.team.sys_ai.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import com.team.sys_ai.entity.Role;
+import com.team.sys_ai.security.CustomUserDetailsService.CustomUserDetails;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -19,11 +22,22 @@ import java.io.IOException;
  * JWT Authentication filter for validating tokens on each request.
  */
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final boolean stateless;
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil,
+            CustomUserDetailsService userDetailsService,
+            TokenVersionRegistry tokenVersionRegistry,
+            @Value("${app.security.jwt.stateless:false}") boolean stateless) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.stateless = stateless;
+    }
 
     @Override
     protected void doFilterInternal(
@@ -46,14 +60,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
 
         try {
-            username = jwtUtil.extractUsername(jwt);
+            // Parse and verify the token once, then reuse the claims
+            Claims claims = jwtUtil.parseClaims(jwt);
+            username = claims.getSubject();
 
             // If username is extracted and no authentication exists in context
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails = resolvePrincipal(claims, username);
 
                 // Validate token
-                if (jwtUtil.validateToken(jwt, userDetails)) {
+                if (userDetails != null && jwtUtil.validateToken(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -70,4 +86,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Build the principal of a verified token, or null if the token was revoked.
+     * Stateless mode rebuilds it from the claims and checks the token version in memory;
+     * otherwise (or for tokens without userId/role claims) the user is loaded through the cache.
+     */
+    private UserDetails resolvePrincipal(Claims claims, String username) {
+        int tokenVersion = jwtUtil.extractTokenVersion(claims);
+        Long userId = claims.get(JwtUtil.CLAIM_USER_ID, Long.class);
+        String role = claims.get(JwtUtil.CLAIM_ROLE, String.class);
+
+        if (stateless && userId != null && role != null) {
+            if (!tokenVersionRegistry.isValid(userId, tokenVersion)) {
+                return null;
+            }
+            return CustomUserDetails.fromClaims(userId, username,
+                    Role.valueOf(role.startsWith("ROLE_") ? role.substring(5) : role),
+                    claims.get(JwtUtil.CLAIM_ENTREPOT_ID, Long.class));
+        }
+
+        CustomUserDetails userDetails = userDetailsService.loadCachedUserByUsername(username);
+        return userDetails.getUser().currentTokenVersion() == tokenVersion ? userDetails : null;
+    }
 }
@@ -19,13 +19,21 @@ import java.util.function.Function;
 @Component
 public class JwtUtil {
 
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_ENTREPOT_ID = "entrepotId";
+    public static final String CLAIM_USER_ID = "userId";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+
     private final SecretKey secretKey;
+    private final JwtParser jwtParser;
     private final long jwtExpiration;
 
     public JwtUtil(
             @Value("${app.jwt.secret}") String secret,
             @Value("${app.jwt.expiration}") long jwtExpiration) {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        // Immutable and thread-safe, built once instead of per call
+        this.jwtParser = Jwts.parser().verifyWith(secretKey).build();
         this.jwtExpiration = jwtExpiration;
     }
 
@@ -40,7 +48,7 @@ public class JwtUtil {
      * Extract role from token.
      */
     public String extractRole(String token) {
-        return extractClaim(token, claims -> claims.get("role", String.class));
+        return extractClaim(token, claims -> claims.get(CLAIM_ROLE, String.class));
     }
 
     /**
@@ -58,12 +66,16 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Parse and verify a token once (signature and expiration).
+     * Throws JwtException if the token is invalid or expired.
+     */
+    public Claims parseClaims(String token) {
+        return jwtParser.parseSignedClaims(token).getPayload();
+    }
+
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parseClaims(token);
     }
 
     /**
@@ -81,7 +93,7 @@ public class JwtUtil {
         // Add role to claims
         userDetails.getAuthorities().stream()
                 .findFirst()
-                .ifPresent(authority -> claims.put("role", authority.getAuthority()));
+                .ifPresent(authority -> claims.put(CLAIM_ROLE, authority.getAuthority()));
         return createToken(claims, userDetails.getUsername());
     }
 
@@ -90,13 +102,35 @@ public class JwtUtil {
      */
     public String generateToken(String username, String role, Long entrepotId) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("role", role);
+        claims.put(CLAIM_ROLE, role);
         if (entrepotId != null) {
-            claims.put("entrepotId", entrepotId);
+            claims.put(CLAIM_ENTREPOT_ID, entrepotId);
         }
         return createToken(claims, username);
     }
 
+    /**
+     * Generate token carrying everything needed to rebuild the principal without the database.
+     */
+    public String generateToken(Long userId, String username, String role, Long entrepotId, int tokenVersion) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, userId);
+        claims.put(CLAIM_ROLE, role);
+        if (entrepotId != null) {
+            claims.put(CLAIM_ENTREPOT_ID, entrepotId);
+        }
+        claims.put(CLAIM_TOKEN_VERSION, tokenVersion);
+        return createToken(claims, username);
+    }
+
+    /**
+     * Token version claim (0 for tokens issued before versioning).
+     */
+    public int extractTokenVersion(Claims claims) {
+        Integer version = claims.get(CLAIM_TOKEN_VERSION, Integer.class);
+        return version != null ? version : 0;
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
                 .claims(claims)
@@ -115,6 +149,15 @@ public class JwtUtil {
         return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
     }
 
+    /**
+     * Validate already parsed claims against user details, without parsing the token again.
+     */
+    public boolean validateToken(Claims claims, UserDetails userDetails) {
+        return claims.getSubject() != null
+                && claims.getSubject().equals(userDetails.getUsername())
+                && !claims.getExpiration().before(new Date());
+    }
+
     /**
      * Validate token format and signature.
      */
@@ -0,0 +1,95 @@
+package com.team.sys_ai.security;
+
+import com.team.sys_ai.entity.User;
+import com.team.sys_ai.repository.UserRepository;
+import com.team.sys_ai.repository.UserTokenState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of the current token version of every active user, used to reject
+ * revoked tokens without querying the database on each request.
+ * Kept up to date by UserService on this instance and reloaded periodically,
+ * which bounds the delay for changes made on other instances.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenVersionRegistry {
+
+    // Inactive and deleted users are absent: all their tokens are rejected
+    private final Map<Long, Integer> versions = new ConcurrentHashMap<>();
+
+    private final UserRepository userRepository;
+
+    /**
+     * Reload all versions from the database (one query).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.security.token-version.refresh-ms:30000}",
+            initialDelayString = "${app.security.token-version.refresh-ms:30000}")
+    public void reload() {
+        Map<Long, Integer> loaded = new ConcurrentHashMap<>();
+        for (UserTokenState state : userRepository.findAllTokenStates()) {
+            if (Boolean.TRUE.equals(state.getActif())) {
+                loaded.put(state.getId(), state.getTokenVersion() != null ? state.getTokenVersion() : 0);
+            }
+        }
+        versions.keySet().retainAll(loaded.keySet());
+        versions.putAll(loaded);
+        log.debug("Token versions reloaded for {} active users", loaded.size());
+    }
+
+    /**
+     * Whether a token with this version is still valid for the user.
+     */
+    public boolean isValid(Long userId, int tokenVersion) {
+        Integer current = versions.get(userId);
+        return current != null && current == tokenVersion;
+    }
+
+    /**
+     * Record the new state of a user, after commit when inside a transaction.
+     */
+    public void update(User user) {
+        Long userId = user.getId();
+        boolean actif = Boolean.TRUE.equals(user.getActif());
+        int version = user.currentTokenVersion();
+        runAfterCommit(() -> {
+            if (actif) {
+                versions.put(userId, version);
+            } else {
+                versions.remove(userId);
+            }
+        });
+    }
+
+    /**
+     * Reject every token of a deleted user.
+     */
+    public void remove(Long userId) {
+        runAfterCommit(() -> versions.remove(userId));
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
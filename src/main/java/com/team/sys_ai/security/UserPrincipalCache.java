@@ -0,0 +1,63 @@
+package com.team.sys_ai.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.team.sys_ai.security.CustomUserDetailsService.CustomUserDetails;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Short-lived cache of authenticated principals by login, so that the JWT filter
+ * does not query the users table on every request.
+ * Entries are evicted by UserService when a user changes (role, warehouse, status, password).
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final Cache<String, CustomUserDetails> cache;
+
+    public UserPrincipalCache(
+            @Value("${app.security.principal-cache.ttl:60s}") Duration ttl,
+            @Value("${app.security.principal-cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    /**
+     * Cached principal for the login, loaded on a miss.
+     */
+    public CustomUserDetails get(String login, Function<String, CustomUserDetails> loader) {
+        return cache.get(login, loader);
+    }
+
+    /**
+     * Evict a login. Inside a transaction the eviction happens after commit,
+     * so a concurrent request cannot cache the old state again.
+     */
+    public void invalidate(String login) {
+        if (login == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(login);
+                }
+            });
+        } else {
+            cache.invalidate(login);
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,100 @@
+package com.team.sys_ai.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.team.sys_ai.entity.NiveauRisque;
+import com.team.sys_ai.service.AiRecommendationService.RecommendationRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Cache of AI recommendation texts keyed on quantized prediction inputs.
+ * Stock, predicted sales and threshold are rounded to geometric buckets
+ * (bucket-ratio wide), so products in a similar situation share one LLM call.
+ * The product name is only part of the key, and of the prompt, when include-product is enabled.
+ */
+@Component
+public class AiRecommendationCache {
+
+    public static final String CACHE_NAME = "ai.recommendations";
+
+    // Values up to this bound are kept exact, larger ones are bucketed
+    private static final int EXACT_LIMIT = 10;
+
+    private final Cache<RecommendationKey, String> cache;
+    private final double logBase;
+    private final boolean includeProduct;
+
+    public AiRecommendationCache(
+            @Value("${app.ai.recommendation.cache.max-size:10000}") long maxSize,
+            @Value("${app.ai.recommendation.cache.ttl:24h}") Duration ttl,
+            @Value("${app.ai.recommendation.cache.bucket-ratio:0.1}") double bucketRatio,
+            @Value("${app.ai.recommendation.cache.include-product:false}") boolean includeProduct,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.logBase = Math.log1p(bucketRatio);
+        this.includeProduct = includeProduct;
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME));
+    }
+
+    record RecommendationKey(NiveauRisque niveauRisque, int stockBucket, int ventesBucket,
+            int seuilBucket, String produitNom) {
+    }
+
+    /**
+     * Return the cached text for similar inputs, or compute and cache it.
+     * Concurrent lookups of the same key wait for a single computation;
+     * failures are not cached.
+     */
+    public String get(RecommendationRequest request, Supplier<String> generator) {
+        return cache.get(keyOf(request), key -> generator.get());
+    }
+
+    /**
+     * Cached text for similar inputs, without calling the model.
+     */
+    public String getIfPresent(RecommendationRequest request) {
+        return cache.getIfPresent(keyOf(request));
+    }
+
+    /**
+     * Whether texts are cached per product (the prompt may then name the product).
+     */
+    public boolean isPerProduct() {
+        return includeProduct;
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    RecommendationKey keyOf(RecommendationRequest request) {
+        return new RecommendationKey(
+                request.niveauRisque(),
+                bucket(request.stockActuel()),
+                bucket(request.ventesPrevues()),
+                bucket(request.seuilAlerte()),
+                includeProduct ? request.produitNom() : null);
+    }
+
+    /**
+     * Geometric bucket: exact for small values, then one bucket per bucket-ratio step.
+     */
+    int bucket(int value) {
+        if (value <= EXACT_LIMIT) {
+            return value;
+        }
+        return EXACT_LIMIT + (int) Math.round(Math.log((double) value / EXACT_LIMIT) / logBase);
+    }
+}
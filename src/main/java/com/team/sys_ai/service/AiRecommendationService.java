@@ -0,0 +1,255 @@
+package com.team.sys_ai.service;
+
+import com.team.sys_ai.entity.NiveauRisque;
+import com.team.sys_ai.repository.PrevisionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Enriches saved predictions with AI-generated recommendation text, outside of
+ * the transaction that created them.
+ * Predictions are first saved with the rule-based recommendation; this service
+ * then calls Ollama on a bounded pool and overwrites the text in batches.
+ * Texts are shared between similar predictions through AiRecommendationCache,
+ * and a circuit breaker stops calling the model after repeated failures.
+ * Model calls are timed (ai.recommendation.calls) and predictions left with the
+ * rule-based text are counted by reason (ai.recommendation.fallbacks).
+ */
+@Slf4j
+@Service
+public class AiRecommendationService {
+
+    private static final int MAX_RECOMMANDATION_LENGTH = 500;
+
+    static final String CALLS_TIMER = "ai.recommendation.calls";
+    static final String FALLBACKS_COUNTER = "ai.recommendation.fallbacks";
+
+    private final Optional<ChatClient> chatClient;
+    private final AiRecommendationCache cache;
+    private final PrevisionRepository previsionRepository;
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int failureThreshold;
+    private final long openDurationMillis;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openUntil = new AtomicLong();
+
+    private final Timer callsSuccess;
+    private final Timer callsError;
+    private final Counter fallbackError;
+    private final Counter fallbackCircuitOpen;
+    private final Counter fallbackQueueFull;
+    private final Counter fallbackEmpty;
+
+    public AiRecommendationService(Optional<ChatClient.Builder> chatClientBuilder,
+            AiRecommendationCache cache,
+            PrevisionRepository previsionRepository,
+            @Qualifier("aiRecommendationExecutor") ThreadPoolTaskExecutor executor,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.ai.recommendation.enabled:true}") boolean enabled,
+            @Value("${app.ai.recommendation.batch-size:20}") int batchSize,
+            @Value("${app.ai.recommendation.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${app.ai.recommendation.circuit-breaker.open-duration-ms:60000}") long openDurationMillis,
+            MeterRegistry meterRegistry) {
+        this.chatClient = chatClientBuilder.map(ChatClient.Builder::build);
+        this.cache = cache;
+        this.previsionRepository = previsionRepository;
+        this.executor = executor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.failureThreshold = failureThreshold;
+        this.openDurationMillis = openDurationMillis;
+        this.callsSuccess = callsTimer(meterRegistry, "success");
+        this.callsError = callsTimer(meterRegistry, "error");
+        this.fallbackError = fallbackCounter(meterRegistry, "error");
+        this.fallbackCircuitOpen = fallbackCounter(meterRegistry, "circuit_open");
+        this.fallbackQueueFull = fallbackCounter(meterRegistry, "queue_full");
+        this.fallbackEmpty = fallbackCounter(meterRegistry, "empty");
+    }
+
+    private static Timer callsTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder(CALLS_TIMER)
+                .description("Calls to the chat model (cache misses)")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter fallbackCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder(FALLBACKS_COUNTER)
+                .description("Predictions keeping the rule-based recommendation")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Inputs of a recommendation for a saved prediction.
+     */
+    public record RecommendationRequest(Long previsionId, String produitNom, int stockActuel,
+            int ventesPrevues, int seuilAlerte, NiveauRisque niveauRisque, int quantiteRecommandee) {
+    }
+
+    /**
+     * Queue predictions for AI enrichment.
+     * When called inside a transaction, submission is deferred until after commit
+     * so that workers only see committed rows and never hold the caller's transaction open.
+     */
+    public void enrichAsync(List<RecommendationRequest> requests) {
+        if (!enabled || chatClient.isEmpty() || requests.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(requests);
+                }
+            });
+        } else {
+            submit(requests);
+        }
+    }
+
+    /**
+     * Whether the circuit breaker currently rejects calls to the model.
+     */
+    public boolean isCircuitOpen() {
+        return System.currentTimeMillis() < openUntil.get();
+    }
+
+    private void submit(List<RecommendationRequest> requests) {
+        for (int from = 0; from < requests.size(); from += batchSize) {
+            List<RecommendationRequest> batch = List.copyOf(
+                    requests.subList(from, Math.min(from + batchSize, requests.size())));
+            try {
+                executor.execute(() -> process(batch));
+            } catch (TaskRejectedException e) {
+                fallbackQueueFull.increment(requests.size() - from);
+                log.warn("AI recommendation queue full, {} predictions keep their fallback text",
+                        requests.size() - from);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Generate the texts of a batch, then save them in a single transaction.
+     * A text is dropped when its prediction was regenerated with other inputs meanwhile.
+     */
+    private void process(List<RecommendationRequest> batch) {
+        Map<RecommendationRequest, String> recommandations = new LinkedHashMap<>();
+        for (RecommendationRequest request : batch) {
+            String text;
+            if (isCircuitOpen()) {
+                // Circuit open: only reuse texts that are already cached
+                text = cache.getIfPresent(request);
+                if (text == null) {
+                    fallbackCircuitOpen.increment();
+                    continue;
+                }
+            } else {
+                try {
+                    text = cache.get(request, () -> generate(request));
+                    consecutiveFailures.set(0);
+                } catch (Exception e) {
+                    recordFailure(e);
+                    fallbackError.increment();
+                    continue;
+                }
+            }
+            if (text != null && !text.isBlank()) {
+                recommandations.put(request, truncate(text.strip()));
+            } else {
+                fallbackEmpty.increment();
+            }
+        }
+
+        if (!recommandations.isEmpty()) {
+            int saved = transactionTemplate.execute(status -> {
+                int updated = 0;
+                for (Map.Entry<RecommendationRequest, String> entry : recommandations.entrySet()) {
+                    RecommendationRequest request = entry.getKey();
+                    updated += previsionRepository.updateRecommandation(request.previsionId(),
+                            request.ventesPrevues(), request.niveauRisque(), request.quantiteRecommandee(),
+                            entry.getValue());
+                }
+                return updated;
+            });
+            log.debug("AI recommendations saved for {} predictions, {} stale dropped (cache: {})",
+                    saved, recommandations.size() - saved, cache.stats());
+        }
+    }
+
+    private void recordFailure(Exception e) {
+        int failures = consecutiveFailures.incrementAndGet();
+        log.warn("AI recommendation failed ({} consecutive), keeping fallback: {}", failures, e.getMessage());
+        if (failures >= failureThreshold) {
+            openUntil.set(System.currentTimeMillis() + openDurationMillis);
+            consecutiveFailures.set(0);
+            log.warn("AI recommendation circuit opened for {} ms", openDurationMillis);
+        }
+    }
+
+    /**
+     * Generate recommendation using AI.
+     */
+    private String generate(RecommendationRequest request) {
+        String prompt = prompt(request, cache.isPerProduct());
+
+        Timer.Sample sample = Timer.start();
+        try {
+            String text = chatClient.get().prompt()
+                    .user(prompt)
+                    .call()
+                    .content();
+            sample.stop(callsSuccess);
+            return text;
+        } catch (RuntimeException e) {
+            sample.stop(callsError);
+            throw e;
+        }
+    }
+
+    /**
+     * Prompt of a recommendation. The product name is only sent when it is part of the cache
+     * key: otherwise the text is shared by every product with similar inputs and must not name one.
+     */
+    static String prompt(RecommendationRequest request, boolean withProduct) {
+        return "En tant qu'expert en gestion des stocks, générez une recommandation courte (max 100 mots) pour:\n" +
+                (withProduct ? "- Produit: " + request.produitNom() + "\n" : "") +
+                String.format(
+                        "- Stock actuel: %d unités\n" +
+                                "- Ventes prévues 30 jours: %d unités\n" +
+                                "- Seuil d'alerte: %d unités\n" +
+                                "- Niveau de risque: %s\n" +
+                                "Format: Une phrase d'action claire et concise.",
+                        request.stockActuel(), request.ventesPrevues(),
+                        request.seuilAlerte(), request.niveauRisque().getLabel());
+    }
+
+    private String truncate(String text) {
+        return text.length() <= MAX_RECOMMANDATION_LENGTH ? text : text.substring(0, MAX_RECOMMANDATION_LENGTH);
+    }
+}
@@ -38,9 +38,11 @@ public class AuthenticationService {
             userRepository.save(user);
 
             String token = jwtUtil.generateToken(
+                    user.getId(),
                     user.getLogin(),
                     user.getRole().name(),
-                    user.getEntrepotAssigne() != null ? user.getEntrepotAssigne().getId() : null
+                    user.getEntrepotAssigne() != null ? user.getEntrepotAssigne().getId() : null,
+                    user.currentTokenVersion()
             );
 
             return AuthResponseDTO.of(
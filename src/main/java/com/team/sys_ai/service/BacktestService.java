@@ -0,0 +1,199 @@
+package com.team.sys_ai.service;
+
+import com.team.sys_ai.dto.BacktestStatusDTO;
+import com.team.sys_ai.entity.Entrepot;
+import com.team.sys_ai.entity.SelectionModele;
+import com.team.sys_ai.entity.Stock;
+import com.team.sys_ai.forecast.Backtester;
+import com.team.sys_ai.forecast.ForecastModelSelector;
+import com.team.sys_ai.forecast.SalesHistory;
+import com.team.sys_ai.repository.EntrepotRepository;
+import com.team.sys_ai.repository.SelectionModeleRepository;
+import com.team.sys_ai.repository.StockRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Chooses the forecasting model of every product of every active warehouse by
+ * backtesting all models on its sales history. Warehouses are processed one after
+ * the other, the products of a warehouse in parallel on a fork-join pool; the
+ * winners replace the previous selections of the warehouse in one transaction.
+ */
+@Slf4j
+@Service
+public class BacktestService {
+
+    private final EntrepotRepository entrepotRepository;
+    private final StockRepository stockRepository;
+    private final SelectionModeleRepository selectionModeleRepository;
+    private final PrevisionService previsionService;
+    private final ForecastModelSelector forecastModelSelector;
+    private final Backtester backtester;
+    private final TaskScheduler taskScheduler;
+    private final TransactionTemplate transactionTemplate;
+    private final ForkJoinPool pool;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicInteger entrepotsTraites = new AtomicInteger();
+    private final AtomicInteger entrepotsEnEchec = new AtomicInteger();
+    private final AtomicLong pairesEvaluees = new AtomicLong();
+    private final DoubleAdder sommeMase = new DoubleAdder();
+    private volatile LocalDateTime debut;
+    private volatile LocalDateTime fin;
+
+    public BacktestService(EntrepotRepository entrepotRepository,
+            StockRepository stockRepository,
+            SelectionModeleRepository selectionModeleRepository,
+            PrevisionService previsionService,
+            ForecastModelSelector forecastModelSelector,
+            Backtester backtester,
+            TaskScheduler taskScheduler,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.forecast.backtest.parallelism:0}") int parallelism) {
+        this.entrepotRepository = entrepotRepository;
+        this.stockRepository = stockRepository;
+        this.selectionModeleRepository = selectionModeleRepository;
+        this.previsionService = previsionService;
+        this.forecastModelSelector = forecastModelSelector;
+        this.backtester = backtester;
+        this.taskScheduler = taskScheduler;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // 0 = one worker per core
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Nightly backtest, before the prediction refresh.
+     */
+    @Scheduled(cron = "${app.forecast.backtest.cron:0 0 1 * * *}")
+    public void scheduledBacktest() {
+        backtestAll();
+    }
+
+    /**
+     * Start a backtest in the background (ADMIN trigger) and return the current status.
+     */
+    public BacktestStatusDTO triggerBacktest() {
+        if (!running.get()) {
+            taskScheduler.schedule(this::backtestAll, Instant.now());
+        }
+        return getStatus();
+    }
+
+    /**
+     * Backtest all active warehouses and wait for completion.
+     * Does nothing if a backtest is already running.
+     */
+    public void backtestAll() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Forecast backtest already running, skipping");
+            return;
+        }
+        try {
+            debut = LocalDateTime.now();
+            fin = null;
+            entrepotsTraites.set(0);
+            entrepotsEnEchec.set(0);
+            pairesEvaluees.set(0);
+            sommeMase.reset();
+
+            for (Entrepot entrepot : entrepotRepository.findByActifTrue()) {
+                backtestEntrepot(entrepot);
+            }
+        } finally {
+            fin = LocalDateTime.now();
+            running.set(false);
+            log.info("Forecast backtest finished: {} warehouses, {} failed, {} products",
+                    entrepotsTraites.get(), entrepotsEnEchec.get(), pairesEvaluees.get());
+        }
+    }
+
+    /**
+     * Current progress of the running (or last) backtest, with the current selections.
+     */
+    public BacktestStatusDTO getStatus() {
+        Map<String, Long> selections = new TreeMap<>();
+        for (Object[] row : selectionModeleRepository.countByModele()) {
+            selections.put((String) row[0], (Long) row[1]);
+        }
+        long paires = pairesEvaluees.get();
+        return BacktestStatusDTO.builder()
+                .enCours(running.get())
+                .debut(debut)
+                .fin(fin)
+                .entrepotsTraites(entrepotsTraites.get())
+                .entrepotsEnEchec(entrepotsEnEchec.get())
+                .pairesEvaluees(paires)
+                .maseMoyen(paires > 0 ? sommeMase.sum() / paires : 0)
+                .selectionsParModele(selections)
+                .build();
+    }
+
+    private void backtestEntrepot(Entrepot entrepot) {
+        long startNanos = System.nanoTime();
+        try {
+            List<Stock> stocks = stockRepository.findByEntrepotIdWithProduit(entrepot.getId());
+            SalesHistory history = previsionService.loadSalesHistory(entrepot.getId());
+            LocalDateTime now = LocalDateTime.now();
+
+            List<SelectionModele> selections = pool.submit(() -> stocks.parallelStream()
+                    .map(stock -> select(entrepot.getId(), stock.getProduit().getId(), history, now))
+                    .filter(Objects::nonNull)
+                    .toList()).join();
+
+            transactionTemplate.executeWithoutResult(status -> {
+                selectionModeleRepository.deleteByEntrepotId(entrepot.getId());
+                selectionModeleRepository.saveAll(selections);
+            });
+
+            entrepotsTraites.incrementAndGet();
+            pairesEvaluees.addAndGet(selections.size());
+            log.info("Warehouse {} backtested: {} products in {} ms",
+                    entrepot.getId(), selections.size(), (System.nanoTime() - startNanos) / 1_000_000);
+        } catch (Exception e) {
+            entrepotsEnEchec.incrementAndGet();
+            log.error("Forecast backtest failed for warehouse {}: {}", entrepot.getId(), e.getMessage(), e);
+        }
+    }
+
+    private SelectionModele select(Long entrepotId, Long produitId, SalesHistory history, LocalDateTime now) {
+        Backtester.Result result = backtester.backtest(history.getQuantites(produitId), history.getJours(),
+                history.getPremierJourSemaine(), forecastModelSelector.getModels());
+        if (result == null) {
+            return null;
+        }
+        sommeMase.add(result.mase());
+        return SelectionModele.builder()
+                .produitId(produitId)
+                .entrepotId(entrepotId)
+                .modele(result.modele())
+                .mape(result.mape())
+                .mase(result.mase())
+                .nombreOrigines(result.origines())
+                .dateBacktest(now)
+                .build();
+    }
+}
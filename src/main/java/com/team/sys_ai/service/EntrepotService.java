@@ -53,7 +53,8 @@ public class EntrepotService {
             if (user.getEntrepotAssigne() == null) {
                 return List.of();
             }
-            return List.of(entrepotMapper.toDTO(user.getEntrepotAssigne()));
+            // Loaded by id: the principal may only carry the warehouse id (stateless JWT mode)
+            return List.of(entrepotMapper.toDTO(findById(user.getEntrepotAssigne().getId())));
         }
     }
 
@@ -157,12 +158,9 @@ public class EntrepotService {
         Entrepot entrepot = findById(id);
         EntrepotDTO dto = entrepotMapper.toDTO(entrepot);
 
-        // Add statistics
-        List<?> stocks = stockRepository.findByEntrepotId(id);
-        dto.setNombreProduits(stocks.size());
-
-        List<?> alerts = stockRepository.findStocksAtAlertLevelByEntrepot(id);
-        dto.setNombreAlertes(alerts.size());
+        // Add statistics (counted in the database rather than loading the stocks)
+        dto.setNombreProduits((int) stockRepository.countByEntrepotId(id));
+        dto.setNombreAlertes((int) stockRepository.countStocksAtAlertLevelByEntrepot(id));
 
         return dto;
     }
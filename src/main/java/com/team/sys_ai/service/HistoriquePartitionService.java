@@ -0,0 +1,303 @@
+package com.team.sys_ai.service;
+
+import com.team.sys_ai.entity.HistoriqueVente;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Monthly range partitioning of historique_ventes on date_vente (PostgreSQL only, opt-in).
+ * On startup the flat table is converted once into a partitioned table; afterwards a
+ * daily job creates the partitions of the coming months and archives the months older
+ * than the retention period into gzip CSV files before dropping them.
+ * Archived months stay available in aggregated form in the daily rollup (ventes_journalieres).
+ * The conversion locks the table for as long as it copies the rows, so it runs while the
+ * context starts, before the web server accepts requests. Other instances writing sales
+ * would wait for it: enable it on one instance during a maintenance window.
+ */
+@Slf4j
+@Service
+@DependsOn("entityManagerFactory")
+public class HistoriquePartitionService {
+
+    private static final String TABLE = "historique_ventes";
+    private static final String LEGACY_TABLE = TABLE + "_legacy";
+    private static final String DEFAULT_PARTITION = TABLE + "_default";
+    private static final String PARTITION_PREFIX = TABLE + "_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    // Serializes partition DDL between application instances
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(hashtext('" + TABLE + "_partitions'))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final Path archiveDir;
+
+    public HistoriquePartitionService(JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.sales.partitioning.enabled:false}") boolean enabled,
+            @Value("${app.sales.partitioning.months-ahead:3}") int monthsAhead,
+            @Value("${app.sales.partitioning.retention-months:0}") int retentionMonths,
+            @Value("${app.sales.partitioning.archive-dir:archives/historique}") Path archiveDir) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.archiveDir = archiveDir;
+    }
+
+    /**
+     * Convert the table if needed, then run the maintenance once. Runs after the schema
+     * update (entityManagerFactory) and before the web server and the scheduled jobs start.
+     */
+    @PostConstruct
+    public void initialize() {
+        if (!isActive()) {
+            return;
+        }
+        if (!isPartitioned()) {
+            convertToPartitionedTable();
+        }
+        maintain();
+    }
+
+    /**
+     * Create the partitions of the coming months and apply the retention period.
+     */
+    @Scheduled(cron = "${app.sales.partitioning.maintenance-cron:0 30 1 * * *}")
+    public void maintain() {
+        if (!isActive() || !isPartitioned()) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(current.plusMonths(i));
+        }
+        if (retentionMonths > 0) {
+            archiveOlderThan(current.minusMonths(retentionMonths));
+        }
+    }
+
+    /**
+     * Replace the flat table by a partitioned one holding the same rows, in one transaction.
+     * Indexes are recreated from the entity mapping and foreign keys from the old table.
+     */
+    private void convertToPartitionedTable() {
+        log.info("Converting {} to a table partitioned by month", TABLE);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute(LOCK_SQL);
+            if (isPartitioned()) {
+                // Converted by another instance while waiting for the lock
+                return;
+            }
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " RENAME TO " + LEGACY_TABLE);
+            jdbcTemplate.execute("CREATE TABLE " + TABLE + " (LIKE " + LEGACY_TABLE + " INCLUDING DEFAULTS) " +
+                    "PARTITION BY RANGE (date_vente)");
+            jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF " + TABLE + " DEFAULT");
+
+            LocalDate oldest = jdbcTemplate.queryForObject(
+                    "SELECT MIN(date_vente) FROM " + LEGACY_TABLE, LocalDate.class);
+            YearMonth month = oldest != null ? YearMonth.from(oldest) : YearMonth.now();
+            for (; !month.isAfter(YearMonth.now()); month = month.plusMonths(1)) {
+                jdbcTemplate.execute("CREATE TABLE " + partitionName(month) + " PARTITION OF " + TABLE +
+                        " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+            }
+            int rows = jdbcTemplate.update("INSERT INTO " + TABLE + " SELECT * FROM " + LEGACY_TABLE);
+
+            List<Map<String, Object>> foreignKeys = jdbcTemplate.queryForList(
+                    "SELECT conname, pg_get_constraintdef(oid) AS definition FROM pg_constraint " +
+                            "WHERE conrelid = '" + LEGACY_TABLE + "'::regclass AND contype = 'f'");
+            // Dropping the old table frees the names of its primary key and indexes
+            jdbcTemplate.execute("DROP TABLE " + LEGACY_TABLE);
+
+            // The partition key must be part of the primary key; ids stay unique through the sequence
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD PRIMARY KEY (id, date_vente)");
+            for (Map<String, Object> foreignKey : foreignKeys) {
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD CONSTRAINT " + foreignKey.get("conname") +
+                        " " + foreignKey.get("definition"));
+            }
+            for (Index index : HistoriqueVente.class.getAnnotation(Table.class).indexes()) {
+                jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + index.name() + " ON " + TABLE +
+                        " (" + index.columnList() + ")");
+            }
+            log.info("{} converted: {} rows moved into monthly partitions", TABLE, rows);
+        });
+    }
+
+    /**
+     * Create the partition of a month if missing. Rows of that month that were
+     * stored in the default partition are moved into it first.
+     */
+    private void createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute(LOCK_SQL);
+            if (exists(partition)) {
+                return;
+            }
+            jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE " + TABLE + " INCLUDING DEFAULTS)");
+            int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION +
+                    " WHERE date_vente >= ? AND date_vente < ? RETURNING *) " +
+                    "INSERT INTO " + partition + " SELECT * FROM moved", from, to);
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + partition +
+                    " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+            log.info("Partition {} created ({} rows moved from the default partition)", partition, moved);
+        });
+    }
+
+    /**
+     * Archive then drop every monthly partition before the given month.
+     * A partition is only dropped once its archive file is completely written.
+     */
+    private void archiveOlderThan(YearMonth firstKeptMonth) {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = '" + TABLE + "'::regclass ORDER BY c.relname",
+                String.class);
+        String firstKept = partitionName(firstKeptMonth);
+        for (String partition : partitions) {
+            if (!partition.startsWith(PARTITION_PREFIX) || partition.compareTo(firstKept) >= 0) {
+                continue;
+            }
+            try {
+                Path archive = archive(partition);
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.execute(LOCK_SQL);
+                    jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partition);
+                    jdbcTemplate.execute("DROP TABLE " + partition);
+                });
+                log.info("Partition {} archived to {} and dropped", partition, archive);
+            } catch (IOException | UncheckedIOException e) {
+                log.error("Archiving partition {} failed, partition kept: {}", partition, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Write all rows of a partition to {archive-dir}/{partition}.csv.gz, streaming
+     * them with a cursor. The file is written under a temporary name and renamed at the end.
+     */
+    private Path archive(String partition) throws IOException {
+        Files.createDirectories(archiveDir);
+        Path target = archiveDir.resolve(partition + ".csv.gz");
+        Path temp = archiveDir.resolve(partition + ".csv.gz.tmp");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(temp)), StandardCharsets.UTF_8))) {
+            // Cursor-based fetch (PostgreSQL only streams inside a transaction)
+            transactionTemplate.executeWithoutResult(status -> {
+                JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+                streaming.setFetchSize(1000);
+                streaming.query("SELECT * FROM " + partition + " ORDER BY date_vente, id",
+                        new CsvRowWriter(writer));
+            });
+        }
+        return Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private boolean isActive() {
+        if (!enabled) {
+            return false;
+        }
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            log.warn("Sales history partitioning is only supported on PostgreSQL, ignored on {}", database);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isPartitioned() {
+        String relkind = jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?)", String.class, TABLE);
+        return "p".equals(relkind);
+    }
+
+    private boolean exists(String relation) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, relation));
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    /**
+     * Writes each row as a CSV line, preceded by a header line with the column names.
+     */
+    private static class CsvRowWriter implements RowCallbackHandler {
+
+        private final Writer writer;
+        private int columns;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                if (columns == 0) {
+                    ResultSetMetaData metaData = rs.getMetaData();
+                    columns = metaData.getColumnCount();
+                    List<String> header = new ArrayList<>(columns);
+                    for (int i = 1; i <= columns; i++) {
+                        header.add(metaData.getColumnName(i));
+                    }
+                    writer.write(String.join(",", header));
+                    writer.write('\n');
+                }
+                for (int i = 1; i <= columns; i++) {
+                    if (i > 1) {
+                        writer.write(',');
+                    }
+                    String value = rs.getString(i);
+                    if (value != null) {
+                        writer.write(value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                                ? value
+                                : '"' + value.replace("\"", "\"\"") + '"');
+                    }
+                }
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.team.sys_ai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.team.sys_ai.dto.HistoriqueVenteDTO;
+import com.team.sys_ai.entity.User;
+import com.team.sys_ai.exception.BusinessValidationException;
+import com.team.sys_ai.exception.EntrepotAccessDeniedException;
+import com.team.sys_ai.repository.HistoriqueVenteRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the sales history of a warehouse as CSV or NDJSON.
+ * Rows are read through a forward-only cursor and written one by one to the
+ * response, so memory use does not depend on the size of the export.
+ */
+@Slf4j
+@Service
+public class HistoriqueVenteExportService {
+
+    private static final String CSV_HEADER =
+            "id,produitId,produitNom,entrepotId,entrepotNom,dateVente,quantiteVendue,jourSemaine,mois,annee";
+
+    // Lower bound used when no start date is given
+    private static final LocalDate DEFAULT_START_DATE = LocalDate.of(1970, 1, 1);
+
+    private final HistoriqueVenteRepository historiqueVenteRepository;
+    private final ObjectWriter ndjsonWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final int flushEvery;
+
+    public HistoriqueVenteExportService(HistoriqueVenteRepository historiqueVenteRepository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.sales.export.flush-every:1000}") int flushEvery) {
+        this.historiqueVenteRepository = historiqueVenteRepository;
+        this.ndjsonWriter = objectMapper.writerFor(HistoriqueVenteDTO.class);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.flushEvery = flushEvery;
+    }
+
+    /**
+     * Export formats.
+     */
+    public enum ExportFormat {
+        CSV("csv", new MediaType("text", "csv", StandardCharsets.UTF_8)),
+        NDJSON("ndjson", MediaType.APPLICATION_NDJSON);
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        ExportFormat(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public static ExportFormat of(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BusinessValidationException("format", "Format d'export non supporté: " + value);
+            }
+        }
+    }
+
+    /**
+     * Validate the request and return the body that writes the export.
+     * Access and dates are checked here, before the response is committed;
+     * the body then runs in its own read-only transaction on the async thread.
+     */
+    public StreamingResponseBody exportHistorique(Long entrepotId, LocalDate startDate, LocalDate endDate,
+            ExportFormat format, boolean gzip, User user) {
+        if (!user.hasAccessToEntrepot(entrepotId)) {
+            throw new EntrepotAccessDeniedException(entrepotId, user.getId());
+        }
+        LocalDate start = startDate != null ? startDate : DEFAULT_START_DATE;
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        if (start.isAfter(end)) {
+            throw new BusinessValidationException("startDate",
+                    "La date de début doit être antérieure à la date de fin");
+        }
+
+        return outputStream -> {
+            OutputStream target = gzip ? new GZIPOutputStream(outputStream, 8192) : outputStream;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 16384);
+            long rows = transactionTemplate.execute(status -> {
+                try (Stream<HistoriqueVenteDTO> ventes = historiqueVenteRepository
+                        .streamDTOsByEntrepotId(entrepotId, start, end)) {
+                    return write(ventes.iterator(), format, writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            // Finish the gzip trailer without closing the servlet stream, which the container owns
+            writer.flush();
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+            log.debug("Exported {} sales of warehouse {} as {}", rows, entrepotId, format);
+        };
+    }
+
+    private long write(Iterator<HistoriqueVenteDTO> ventes, ExportFormat format, Writer writer) throws IOException {
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        long rows = 0;
+        while (ventes.hasNext()) {
+            HistoriqueVenteDTO vente = ventes.next();
+            if (format == ExportFormat.CSV) {
+                writeCsv(vente, writer);
+            } else {
+                writer.write(ndjsonWriter.writeValueAsString(vente));
+                writer.write('\n');
+            }
+            // Push data to the client regularly instead of buffering the whole export
+            if (++rows % flushEvery == 0) {
+                writer.flush();
+            }
+        }
+        return rows;
+    }
+
+    private void writeCsv(HistoriqueVenteDTO vente, Writer writer) throws IOException {
+        writer.write(String.valueOf(vente.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(vente.getProduitId()));
+        writer.write(',');
+        writer.write(csv(vente.getProduitNom()));
+        writer.write(',');
+        writer.write(String.valueOf(vente.getEntrepotId()));
+        writer.write(',');
+        writer.write(csv(vente.getEntrepotNom()));
+        writer.write(',');
+        writer.write(vente.getDateVente().toString());
+        writer.write(',');
+        writer.write(String.valueOf(vente.getQuantiteVendue()));
+        writer.write(',');
+        writer.write(vente.getJourSemaine() != null ? vente.getJourSemaine().name() : "");
+        writer.write(',');
+        writer.write(vente.getMois() != null ? vente.getMois().toString() : "");
+        writer.write(',');
+        writer.write(vente.getAnnee() != null ? vente.getAnnee().toString() : "");
+        writer.write('\n');
+    }
+
+    /**
+     * Quote a CSV field when it contains a separator, a quote or a line break.
+     */
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,6 +1,9 @@
 package com.team.sys_ai.service;
 
+import com.team.sys_ai.dto.CursorResponse;
 import com.team.sys_ai.dto.HistoriqueVenteDTO;
+import com.team.sys_ai.dto.VenteBulkItemDTO;
+import com.team.sys_ai.dto.VenteBulkResultDTO;
 import com.team.sys_ai.entity.Entrepot;
 import com.team.sys_ai.entity.HistoriqueVente;
 import com.team.sys_ai.entity.Produit;
@@ -13,7 +16,9 @@ import com.team.sys_ai.repository.EntrepotRepository;
 import com.team.sys_ai.repository.HistoriqueVenteRepository;
 import com.team.sys_ai.repository.ProduitRepository;
 import com.team.sys_ai.repository.StockRepository;
+import com.team.sys_ai.repository.VenteJournaliereRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -21,7 +26,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service for HistoriqueVente operations.
@@ -36,8 +47,13 @@ public class HistoriqueVenteService {
     private final EntrepotRepository entrepotRepository;
     private final StockRepository stockRepository;
     private final StockService stockService;
+    private final VenteJournaliereRepository venteJournaliereRepository;
+    private final SalesSeriesStore salesSeriesStore;
     private final HistoriqueVenteMapper historiqueVenteMapper;
 
+    @Value("${app.sales.bulk.max-items:10000}")
+    private int bulkMaxItems;
+
     /**
      * Validate user has access to warehouse.
      */
@@ -64,6 +80,21 @@ public class HistoriqueVenteService {
                 .map(historiqueVenteMapper::toDTO);
     }
 
+    /**
+     * Get sales history for a warehouse (keyset pagination, newest first).
+     * The total is only counted when includeTotal is set.
+     */
+    public CursorResponse<HistoriqueVenteDTO> getHistoriqueByEntrepot(Long entrepotId, User user,
+            String cursor, int size, boolean includeTotal) {
+        validateAccess(entrepotId, user);
+        KeysetCursor position = KeysetCursor.decodeDesc(cursor);
+        List<HistoriqueVenteDTO> rows = historiqueVenteRepository.findDTOsByEntrepotIdBefore(
+                entrepotId, position.date(), position.id(), KeysetCursor.limit(size));
+        return CursorResponse.of(rows, size,
+                vente -> new KeysetCursor(vente.getDateVente(), vente.getId()).encode(),
+                includeTotal ? historiqueVenteRepository.countByEntrepotId(entrepotId) : null);
+    }
+
     /**
      * Get sales history between dates for a warehouse (non-paginated).
      */
@@ -130,8 +161,8 @@ public class HistoriqueVenteService {
         Produit produit = produitRepository.findById(produitId)
                 .orElseThrow(() -> new ResourceNotFoundException("Produit", "id", produitId));
 
-        // Update stock (will throw if insufficient)
-        stockService.removeQuantity(entrepotId, produitId, quantite, user);
+        // Atomic stock decrement (will throw if insufficient)
+        stockService.decrementQuantity(entrepotId, produitId, quantite);
 
         // Create sale record
         HistoriqueVente vente = HistoriqueVente.builder()
@@ -142,36 +173,132 @@ public class HistoriqueVenteService {
                 .build();
 
         vente = historiqueVenteRepository.save(vente);
+        venteJournaliereRepository.addSales(produitId, entrepotId, dateVente, quantite, 1);
+        salesSeriesStore.recordSales(produitId, entrepotId, dateVente, quantite, 1);
         return historiqueVenteMapper.toDTO(vente);
     }
 
+    /**
+     * Record a batch of sales for a warehouse in one transaction.
+     * Access is checked once, products are resolved in one query, stock is decremented
+     * once per product (in product id order, to avoid deadlocks between concurrent batches),
+     * and history rows are inserted with JDBC batching. All or nothing: an unknown product
+     * or an insufficient stock rejects the whole batch.
+     */
+    @Transactional
+    public VenteBulkResultDTO recordSales(Long entrepotId, List<VenteBulkItemDTO> ventes, User user) {
+        validateAccess(entrepotId, user);
+
+        if (ventes == null || ventes.isEmpty()) {
+            throw new BusinessValidationException("ventes", "Le lot de ventes est vide");
+        }
+        if (ventes.size() > bulkMaxItems) {
+            throw new BusinessValidationException("ventes",
+                    String.format("Le lot ne peut pas dépasser %d ventes", bulkMaxItems));
+        }
+
+        LocalDate today = LocalDate.now();
+        // Total quantity per product, sorted by product id
+        Map<Long, Integer> quantiteParProduit = new TreeMap<>();
+        long quantiteTotale = 0;
+        for (VenteBulkItemDTO vente : ventes) {
+            if (vente.getProduitId() == null) {
+                throw new BusinessValidationException("produitId", "L'ID du produit est obligatoire");
+            }
+            if (vente.getQuantite() == null || vente.getQuantite() <= 0) {
+                throw new BusinessValidationException("quantite", "La quantité vendue doit être positive");
+            }
+            quantiteParProduit.merge(vente.getProduitId(), vente.getQuantite(), Integer::sum);
+            quantiteTotale += vente.getQuantite();
+        }
+
+        Entrepot entrepot = entrepotRepository.findById(entrepotId)
+                .orElseThrow(() -> new ResourceNotFoundException("Entrepôt", "id", entrepotId));
+
+        Set<Long> produitIds = quantiteParProduit.keySet();
+        Map<Long, Produit> produits = produitRepository.findAllById(produitIds).stream()
+                .collect(Collectors.toMap(Produit::getId, Function.identity()));
+        for (Long produitId : produitIds) {
+            if (!produits.containsKey(produitId)) {
+                throw new ResourceNotFoundException("Produit", "id", produitId);
+            }
+        }
+
+        // One atomic decrement per product (will throw if insufficient)
+        quantiteParProduit.forEach((produitId, quantite) ->
+                stockService.decrementQuantity(entrepotId, produitId, quantite));
+
+        List<HistoriqueVente> historique = new ArrayList<>(ventes.size());
+        Map<Long, Map<LocalDate, int[]>> rollup = new TreeMap<>();
+        for (VenteBulkItemDTO vente : ventes) {
+            LocalDate dateVente = vente.getDateVente() != null ? vente.getDateVente() : today;
+            historique.add(HistoriqueVente.builder()
+                    .entrepot(entrepot)
+                    .produit(produits.get(vente.getProduitId()))
+                    .quantiteVendue(vente.getQuantite())
+                    .dateVente(dateVente)
+                    .build());
+
+            // Daily rollup totals: {quantity, number of sales}
+            int[] totals = rollup.computeIfAbsent(vente.getProduitId(), id -> new TreeMap<>())
+                    .computeIfAbsent(dateVente, d -> new int[2]);
+            totals[0] += vente.getQuantite();
+            totals[1]++;
+        }
+        historiqueVenteRepository.saveAll(historique);
+
+        rollup.forEach((produitId, parJour) -> parJour.forEach((dateVente, totals) -> {
+            venteJournaliereRepository.addSales(produitId, entrepotId, dateVente, totals[0], totals[1]);
+            salesSeriesStore.recordSales(produitId, entrepotId, dateVente, totals[0], totals[1]);
+        }));
+
+        return VenteBulkResultDTO.builder()
+                .ventesEnregistrees(historique.size())
+                .produits(produitIds.size())
+                .quantiteTotale(quantiteTotale)
+                .build();
+    }
+
     /**
      * Get total quantity sold for a product in a warehouse during a period.
      */
     public Integer getTotalQuantitySold(Long produitId, Long entrepotId, LocalDate startDate, LocalDate endDate) {
-        return historiqueVenteRepository.getTotalQuantitySold(produitId, entrepotId, startDate, endDate);
+        if (salesSeriesStore.covers(startDate, endDate)) {
+            return salesSeriesStore.getTotalQuantitySold(produitId, entrepotId, startDate, endDate);
+        }
+        return venteJournaliereRepository.getTotalQuantitySold(produitId, entrepotId, startDate, endDate);
     }
 
     /**
-     * Get average daily sales.
+     * Get average daily sales over the last daysBack days (today included),
+     * days without sales counting as zero.
      */
     public Double getAverageDailySales(Long produitId, Long entrepotId, int daysBack) {
-        LocalDate startDate = LocalDate.now().minusDays(daysBack);
-        return historiqueVenteRepository.getAverageDailySales(produitId, entrepotId, startDate);
+        if (daysBack <= 0) {
+            throw new BusinessValidationException("daysBack", "Le nombre de jours doit être positif");
+        }
+        LocalDate today = LocalDate.now();
+        return getTotalQuantitySold(produitId, entrepotId, today.minusDays(daysBack - 1L), today) / (double) daysBack;
     }
 
     /**
      * Get sales by day of week.
      */
     public List<Object[]> getSalesByDayOfWeek(Long produitId, Long entrepotId) {
-        return historiqueVenteRepository.getSalesByDayOfWeek(produitId, entrepotId);
+        if (salesSeriesStore.coversAll()) {
+            return salesSeriesStore.getSalesByDayOfWeek(produitId, entrepotId);
+        }
+        return venteJournaliereRepository.getSalesByDayOfWeek(produitId, entrepotId);
     }
 
     /**
      * Get monthly sales.
      */
     public List<Object[]> getMonthlySales(Long produitId, Long entrepotId) {
-        return historiqueVenteRepository.getMonthlySales(produitId, entrepotId);
+        if (salesSeriesStore.coversAll()) {
+            return salesSeriesStore.getMonthlySales(produitId, entrepotId);
+        }
+        return venteJournaliereRepository.getMonthlySales(produitId, entrepotId);
     }
 
     /**
@@ -179,6 +306,15 @@ public class HistoriqueVenteService {
      */
     public List<Object[]> getTopSellingProducts(Long entrepotId, int daysBack, int limit) {
         LocalDate since = LocalDate.now().minusDays(daysBack);
-        return historiqueVenteRepository.getTopSellingProducts(entrepotId, since, PageRequest.of(0, limit));
+        if (!salesSeriesStore.covers(since)) {
+            return venteJournaliereRepository.getTopSellingProducts(entrepotId, since, PageRequest.of(0, limit));
+        }
+        // Totals from the store, names in one query
+        Map<Long, Long> top = salesSeriesStore.getTopSellingProducts(entrepotId, since, limit);
+        Map<Long, String> noms = produitRepository.findAllById(top.keySet()).stream()
+                .collect(Collectors.toMap(Produit::getId, Produit::getNom));
+        List<Object[]> rows = new ArrayList<>(top.size());
+        top.forEach((produitId, totalSold) -> rows.add(new Object[] { produitId, noms.get(produitId), totalSold }));
+        return rows;
     }
 }
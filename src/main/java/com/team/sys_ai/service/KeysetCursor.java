@@ -0,0 +1,79 @@
+package com.team.sys_ai.service;
+
+import com.team.sys_ai.exception.BusinessValidationException;
+import org.springframework.data.domain.Limit;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a keyset page: (date, id) for listings sorted by date
+ * then id, or id alone. Exchanged with clients as an opaque URL-safe token.
+ */
+record KeysetCursor(LocalDate date, long id) {
+
+    static final int MAX_PAGE_SIZE = 500;
+
+    // Start positions for the first page (no cursor): before every real row
+    private static final LocalDate LAST_DATE = LocalDate.of(9999, 12, 31);
+    private static final KeysetCursor FIRST_DESC = new KeysetCursor(LAST_DATE, Long.MAX_VALUE);
+    private static final KeysetCursor FIRST_ASC = new KeysetCursor(null, 0L);
+
+    String encode() {
+        String raw = (date != null ? date.toString() : "") + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token of a listing sorted by date then id, descending.
+     */
+    static KeysetCursor decodeDesc(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST_DESC;
+        }
+        KeysetCursor cursor = decode(token);
+        if (cursor.date() == null) {
+            throw invalid();
+        }
+        return cursor;
+    }
+
+    /**
+     * Decode a token of a listing sorted by id, ascending.
+     */
+    static KeysetCursor decodeAsc(String token) {
+        return token == null || token.isBlank() ? FIRST_ASC : decode(token);
+    }
+
+    /**
+     * Query limit for a page: one extra row tells whether a next page exists.
+     */
+    static Limit limit(int pageSize) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new BusinessValidationException("size",
+                    String.format("La taille de page doit être comprise entre 1 et %d", MAX_PAGE_SIZE));
+        }
+        return Limit.of(pageSize + 1);
+    }
+
+    private static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(':');
+            if (separator < 0) {
+                throw invalid();
+            }
+            String date = raw.substring(0, separator);
+            return new KeysetCursor(date.isEmpty() ? null : LocalDate.parse(date),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw invalid();
+        }
+    }
+
+    private static BusinessValidationException invalid() {
+        return new BusinessValidationException("cursor", "Curseur de pagination invalide");
+    }
+}
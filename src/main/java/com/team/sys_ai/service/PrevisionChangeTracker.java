@@ -0,0 +1,73 @@
+package com.team.sys_ai.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Product/warehouse pairs whose prediction is out of date (sales, stock or threshold
+ * changed since the last refresh), consumed by the incremental refresh.
+ * Kept in memory on each instance: changes lost on restart or made on another
+ * instance are caught up by the nightly full refresh.
+ */
+@Component
+public class PrevisionChangeTracker {
+
+    // Packed keys: produitId << 32 | entrepotId
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Mark a pair as changed, after commit when inside a transaction.
+     */
+    public void markChanged(Long produitId, Long entrepotId) {
+        long key = produitId << 32 | entrepotId;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changed.add(key);
+                }
+            });
+        } else {
+            changed.add(key);
+        }
+    }
+
+    /**
+     * Mark products of a warehouse again, e.g. after a failed refresh.
+     */
+    public void markProductsChanged(Long entrepotId, Collection<Long> produitIds) {
+        for (Long produitId : produitIds) {
+            changed.add(produitId << 32 | entrepotId);
+        }
+    }
+
+    /**
+     * Remove and return the changed pairs: product ids by warehouse id.
+     * Pairs marked while draining are either returned or kept for the next call.
+     */
+    public Map<Long, Set<Long>> drain() {
+        Map<Long, Set<Long>> byEntrepot = new TreeMap<>();
+        for (Iterator<Long> it = changed.iterator(); it.hasNext(); ) {
+            long key = it.next();
+            it.remove();
+            byEntrepot.computeIfAbsent(key & 0xFFFFFFFFL, id -> new TreeSet<>()).add(key >>> 32);
+        }
+        return byEntrepot;
+    }
+
+    /**
+     * Number of pairs waiting for a refresh.
+     */
+    public int size() {
+        return changed.size();
+    }
+}
@@ -0,0 +1,80 @@
+package com.team.sys_ai.service;
+
+import com.team.sys_ai.repository.PrevisionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+/**
+ * Service keeping the previsions table bounded: one row per product, warehouse and day,
+ * the latest prediction flagged, and the history pruned after the retention period.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class PrevisionMaintenanceService {
+
+    // Declared on Prevision; ddl-auto=update cannot add it while same-day duplicates exist
+    private static final String UNIQUE_CONSTRAINT = "uk_prevision_produit_entrepot_date";
+
+    private final PrevisionRepository previsionRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.forecast.retention-days:90}")
+    private int retentionDays;
+
+    /**
+     * Upgrade databases written before predictions were upserted, on startup: drop same-day
+     * duplicates, then add the unique constraint when missing and flag the latest predictions
+     * when predictions exist but none is flagged.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void materializeIfMissing() {
+        boolean constrained = hasUniqueConstraint();
+        boolean flagged = previsionRepository.existsByDerniereTrue() || previsionRepository.count() == 0;
+        if (constrained && flagged) {
+            return;
+        }
+        int duplicates = previsionRepository.deleteDuplicates();
+        if (!constrained) {
+            jdbcTemplate.execute("ALTER TABLE previsions ADD CONSTRAINT " + UNIQUE_CONSTRAINT
+                    + " UNIQUE (produit_id, entrepot_id, date_prevision)");
+            log.info("Unique constraint {} added ({} same-day duplicates removed)", UNIQUE_CONSTRAINT, duplicates);
+        }
+        if (!flagged) {
+            int marked = previsionRepository.markDerniere();
+            log.info("Latest predictions flagged: {} rows ({} same-day duplicates removed)", marked, duplicates);
+        }
+    }
+
+    private boolean hasUniqueConstraint() {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.table_constraints "
+                + "WHERE LOWER(table_name) = 'previsions' AND LOWER(constraint_name) = ?",
+                Integer.class, UNIQUE_CONSTRAINT);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Delete the predictions older than the retention period, except the latest of each product.
+     */
+    @Scheduled(cron = "${app.forecast.retention.cron:0 30 3 * * *}")
+    @Transactional
+    public int prune() {
+        if (retentionDays <= 0) {
+            return 0;
+        }
+        int deleted = previsionRepository.deleteOldPredictions(LocalDate.now().minusDays(retentionDays));
+        log.info("Pruned {} predictions older than {} days", deleted, retentionDays);
+        return deleted;
+    }
+}
@@ -0,0 +1,237 @@
+package com.team.sys_ai.service;
+
+import com.team.sys_ai.dto.PrevisionRefreshStatusDTO;
+import com.team.sys_ai.entity.Entrepot;
+import com.team.sys_ai.entity.Stock;
+import com.team.sys_ai.forecast.SalesHistory;
+import com.team.sys_ai.repository.EntrepotRepository;
+import com.team.sys_ai.repository.StockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Refreshes the predictions of every active warehouse in the background.
+ * Warehouses are processed in parallel on a bounded pool, and each chunk of
+ * products is generated in its own short transaction.
+ * Between two nightly full refreshes, an incremental refresh only recomputes the
+ * product/warehouse pairs marked by PrevisionChangeTracker.
+ */
+@Slf4j
+@Service
+public class PrevisionRefreshService {
+
+    private final EntrepotRepository entrepotRepository;
+    private final StockRepository stockRepository;
+    private final PrevisionService previsionService;
+    private final PrevisionChangeTracker previsionChangeTracker;
+    private final ThreadPoolTaskExecutor forecastExecutor;
+    private final TaskScheduler taskScheduler;
+    private final int chunkSize;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile boolean incremental;
+    private final AtomicInteger entrepotsTotal = new AtomicInteger();
+    private final AtomicInteger entrepotsTraites = new AtomicInteger();
+    private final AtomicInteger entrepotsEnEchec = new AtomicInteger();
+    private final AtomicLong previsionsGenerees = new AtomicLong();
+    private volatile LocalDateTime debut;
+    private volatile LocalDateTime fin;
+
+    public PrevisionRefreshService(EntrepotRepository entrepotRepository,
+            StockRepository stockRepository,
+            PrevisionService previsionService,
+            PrevisionChangeTracker previsionChangeTracker,
+            @Qualifier("forecastExecutor") ThreadPoolTaskExecutor forecastExecutor,
+            TaskScheduler taskScheduler,
+            @Value("${app.forecast.refresh.chunk-size:500}") int chunkSize) {
+        this.entrepotRepository = entrepotRepository;
+        this.stockRepository = stockRepository;
+        this.previsionService = previsionService;
+        this.previsionChangeTracker = previsionChangeTracker;
+        this.forecastExecutor = forecastExecutor;
+        this.taskScheduler = taskScheduler;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Nightly refresh of all active warehouses.
+     */
+    @Scheduled(cron = "${app.forecast.refresh.cron:0 0 2 * * *}")
+    public void scheduledRefresh() {
+        refreshAll();
+    }
+
+    /**
+     * Start a refresh in the background (ADMIN trigger) and return the current status.
+     */
+    public PrevisionRefreshStatusDTO triggerRefresh() {
+        if (!running.get()) {
+            taskScheduler.schedule(this::refreshAll, Instant.now());
+        }
+        return getStatus();
+    }
+
+    /**
+     * Refresh all active warehouses and wait for completion.
+     * Does nothing if a refresh is already running.
+     */
+    public void refreshAll() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Prediction refresh already running, skipping");
+            return;
+        }
+        // Changes committed so far are covered by this full refresh, unless their warehouse fails
+        Map<Long, Set<Long>> changes = previsionChangeTracker.drain();
+        List<Entrepot> entrepots = entrepotRepository.findByActifTrue();
+        run(entrepots, entrepot -> {
+            if (!refreshEntrepot(entrepot, null)) {
+                markChangedAgain(entrepot, changes.get(entrepot.getId()));
+            }
+        }, false);
+    }
+
+    /**
+     * Refresh only the product/warehouse pairs changed since the last refresh.
+     * Does nothing if nothing changed or if a refresh is already running (the changes wait).
+     */
+    @Scheduled(fixedDelayString = "${app.forecast.refresh.incremental-ms:3600000}",
+            initialDelayString = "${app.forecast.refresh.incremental-ms:3600000}")
+    public void refreshChanged() {
+        if (previsionChangeTracker.size() == 0 || !running.compareAndSet(false, true)) {
+            return;
+        }
+        Map<Long, Set<Long>> changes = previsionChangeTracker.drain();
+        List<Entrepot> entrepots = entrepotRepository.findAllById(changes.keySet()).stream()
+                .filter(entrepot -> Boolean.TRUE.equals(entrepot.getActif()))
+                .toList();
+        run(entrepots, entrepot -> {
+            Set<Long> produitIds = changes.get(entrepot.getId());
+            if (!refreshEntrepot(entrepot, produitIds)) {
+                markChangedAgain(entrepot, produitIds);
+            }
+        }, true);
+    }
+
+    /**
+     * Mark the drained products of a failed warehouse again, for the next incremental refresh.
+     */
+    private void markChangedAgain(Entrepot entrepot, Set<Long> produitIds) {
+        if (produitIds != null) {
+            previsionChangeTracker.markProductsChanged(entrepot.getId(), produitIds);
+        }
+    }
+
+    /**
+     * Run a refresh of the given warehouses in parallel and wait for completion; running must be set.
+     */
+    private void run(List<Entrepot> entrepots, Consumer<Entrepot> refresh, boolean incremental) {
+        try {
+            start(entrepots.size(), incremental);
+            log.info("Prediction {} refresh started for {} warehouses",
+                    incremental ? "incremental" : "full", entrepots.size());
+
+            CompletableFuture<?>[] tasks = entrepots.stream()
+                    .map(entrepot -> CompletableFuture.runAsync(() -> refresh.accept(entrepot), forecastExecutor))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(tasks).join();
+        } finally {
+            fin = LocalDateTime.now();
+            running.set(false);
+            PrevisionRefreshStatusDTO status = getStatus();
+            log.info("Prediction refresh finished: {}/{} warehouses, {} failed, {} predictions ({} /s)",
+                    status.getEntrepotsTraites(), status.getEntrepotsTotal(), status.getEntrepotsEnEchec(),
+                    status.getPrevisionsGenerees(), String.format("%.1f", status.getPrevisionsParSeconde()));
+        }
+    }
+
+    /**
+     * Current progress of the running (or last) refresh.
+     */
+    public PrevisionRefreshStatusDTO getStatus() {
+        LocalDateTime start = debut;
+        LocalDateTime end = fin != null ? fin : LocalDateTime.now();
+        long previsions = previsionsGenerees.get();
+        double seconds = start != null ? Duration.between(start, end).toMillis() / 1000.0 : 0;
+        return PrevisionRefreshStatusDTO.builder()
+                .enCours(running.get())
+                .incremental(incremental)
+                .debut(start)
+                .fin(fin)
+                .entrepotsTotal(entrepotsTotal.get())
+                .entrepotsTraites(entrepotsTraites.get())
+                .entrepotsEnEchec(entrepotsEnEchec.get())
+                .previsionsGenerees(previsions)
+                .previsionsParSeconde(seconds > 0 ? previsions / seconds : 0)
+                .changementsEnAttente(previsionChangeTracker.size())
+                .build();
+    }
+
+    private void start(int total, boolean incremental) {
+        this.incremental = incremental;
+        debut = LocalDateTime.now();
+        fin = null;
+        entrepotsTotal.set(total);
+        entrepotsTraites.set(0);
+        entrepotsEnEchec.set(0);
+        previsionsGenerees.set(0);
+    }
+
+    /**
+     * Refresh one warehouse, one transaction per chunk of products.
+     * With produitIds, only these products are refreshed (their stocks are read with
+     * IN lists of at most PrevisionService.IN_BATCH_SIZE ids).
+     * Returns false when the warehouse failed.
+     */
+    private boolean refreshEntrepot(Entrepot entrepot, Set<Long> produitIds) {
+        long startNanos = System.nanoTime();
+        try {
+            List<Stock> stocks;
+            SalesHistory history;
+            if (produitIds == null) {
+                stocks = stockRepository.findByEntrepotIdWithProduit(entrepot.getId());
+                history = previsionService.loadSalesHistory(entrepot.getId());
+            } else {
+                stocks = new ArrayList<>();
+                for (List<Long> batch : PrevisionService.inBatches(List.copyOf(produitIds))) {
+                    stocks.addAll(stockRepository.findByEntrepotIdAndProduitIdsWithProduit(entrepot.getId(), batch));
+                }
+                history = previsionService.loadSalesHistory(entrepot.getId(), produitIds);
+            }
+
+            int generated = 0;
+            for (int from = 0; from < stocks.size(); from += chunkSize) {
+                List<Stock> chunk = stocks.subList(from, Math.min(from + chunkSize, stocks.size()));
+                int saved = previsionService.generatePrevisions(entrepot, chunk, history).size();
+                generated += saved;
+                previsionsGenerees.addAndGet(saved);
+            }
+
+            entrepotsTraites.incrementAndGet();
+            log.info("Warehouse {} refreshed: {} predictions in {} ms",
+                    entrepot.getId(), generated, (System.nanoTime() - startNanos) / 1_000_000);
+            return true;
+        } catch (Exception e) {
+            entrepotsEnEchec.incrementAndGet();
+            log.error("Prediction refresh failed for warehouse {}: {}", entrepot.getId(), e.getMessage(), e);
+            return false;
+        }
+    }
+}
@@ -1,23 +1,37 @@
 package com.team.sys_ai.service;
 
+import com.team.sys_ai.dto.CursorResponse;
 import com.team.sys_ai.dto.PrevisionDTO;
 import com.team.sys_ai.entity.*;
 import com.team.sys_ai.exception.EntrepotAccessDeniedException;
 import com.team.sys_ai.exception.ResourceNotFoundException;
+import com.team.sys_ai.forecast.ForecastModel;
+import com.team.sys_ai.forecast.ForecastModelSelector;
+import com.team.sys_ai.forecast.SalesHistory;
 import com.team.sys_ai.mapper.PrevisionMapper;
 import com.team.sys_ai.repository.*;
+import com.team.sys_ai.service.AiRecommendationService.RecommendationRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service for AI-powered stock predictions.
@@ -28,13 +42,37 @@ import java.util.Optional;
 @Transactional(readOnly = true)
 public class PrevisionService {
 
+    // Predictions cover the next 30 days (quantitePrevue30Jours)
+    private static final int FORECAST_HORIZON_DAYS = 30;
+
+    // Duration of each stage of the generation (tags: operation single/batch, stage)
+    static final String GENERATION_TIMER = "prevision.generation";
+
+    // Product ids bound per IN list: stays far below the PostgreSQL limit of 32767 parameters
+    static final int IN_BATCH_SIZE = 1000;
+
+    // Transaction scoped lock on (previsions, warehouse id), a key space of its own
+    private static final String GENERATION_LOCK_SQL = "SELECT pg_advisory_xact_lock(hashtext('previsions'), ?)";
+    private static final String GENERATION_ROW_LOCK_SQL = "SELECT id FROM entrepots WHERE id = ? FOR UPDATE";
+
     private final PrevisionRepository previsionRepository;
     private final StockRepository stockRepository;
-    private final HistoriqueVenteRepository historiqueVenteRepository;
+    private final VenteJournaliereRepository venteJournaliereRepository;
+    private final SalesSeriesStore salesSeriesStore;
+    private final ForecastModelSelector forecastModelSelector;
+    private final SelectionModeleRepository selectionModeleRepository;
     private final ProduitRepository produitRepository;
     private final EntrepotRepository entrepotRepository;
     private final PrevisionMapper previsionMapper;
-    private final Optional<ChatClient.Builder> chatClientBuilder;
+    private final AiRecommendationService aiRecommendationService;
+    private final MeterRegistry meterRegistry;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.forecast.history-days:90}")
+    private int historyDays;
+
+    // Resolved on the first generation
+    private volatile Boolean postgres;
 
     /**
      * Validate user has access to warehouse.
@@ -45,22 +83,12 @@ public class PrevisionService {
         }
     }
 
-    /**
-     * Enrich list of predictions.
-     */
-    private List<PrevisionDTO> enrichPrevisions(List<Prevision> previsions, Long entrepotId) {
-        return previsions.stream()
-                .map(p -> enrichPrevision(p, entrepotId))
-                .toList();
-    }
-
     /**
      * Get predictions for a warehouse (non-paginated).
      */
     public List<PrevisionDTO> getPrevisionsByEntrepot(Long entrepotId, User user) {
         validateAccess(entrepotId, user);
-        List<Prevision> previsions = previsionRepository.findByEntrepotId(entrepotId);
-        return enrichPrevisions(previsions, entrepotId);
+        return previsionRepository.findDTOsByEntrepotId(entrepotId);
     }
 
     /**
@@ -68,8 +96,22 @@ public class PrevisionService {
      */
     public Page<PrevisionDTO> getPrevisionsByEntrepot(Long entrepotId, User user, Pageable pageable) {
         validateAccess(entrepotId, user);
-        return previsionRepository.findByEntrepotId(entrepotId, pageable)
-                .map(p -> enrichPrevision(p, entrepotId));
+        return previsionRepository.findDTOsByEntrepotId(entrepotId, pageable);
+    }
+
+    /**
+     * Get predictions for a warehouse (keyset pagination, newest first).
+     * The total is only counted when includeTotal is set.
+     */
+    public CursorResponse<PrevisionDTO> getPrevisionsByEntrepot(Long entrepotId, User user,
+            String cursor, int size, boolean includeTotal) {
+        validateAccess(entrepotId, user);
+        KeysetCursor position = KeysetCursor.decodeDesc(cursor);
+        List<PrevisionDTO> rows = previsionRepository.findDTOsByEntrepotIdBefore(
+                entrepotId, position.date(), position.id(), KeysetCursor.limit(size));
+        return CursorResponse.of(rows, size,
+                prevision -> new KeysetCursor(prevision.getDatePrevision(), prevision.getId()).encode(),
+                includeTotal ? previsionRepository.countByEntrepotId(entrepotId) : null);
     }
 
     /**
@@ -77,8 +119,7 @@ public class PrevisionService {
      */
     public List<PrevisionDTO> getHighRiskPrevisions(Long entrepotId, User user) {
         validateAccess(entrepotId, user);
-        List<Prevision> previsions = previsionRepository.findHighRiskPredictions(entrepotId);
-        return enrichPrevisions(previsions, entrepotId);
+        return previsionRepository.findHighRiskDTOs(entrepotId);
     }
 
     /**
@@ -86,24 +127,21 @@ public class PrevisionService {
      */
     public Page<PrevisionDTO> getHighRiskPrevisions(Long entrepotId, User user, Pageable pageable) {
         validateAccess(entrepotId, user);
-        return previsionRepository.findHighRiskPredictions(entrepotId, pageable)
-                .map(p -> enrichPrevision(p, entrepotId));
+        return previsionRepository.findHighRiskDTOs(entrepotId, pageable);
     }
 
     /**
      * Get all high-risk predictions (ADMIN only, non-paginated).
      */
     public List<PrevisionDTO> getAllHighRiskPrevisions() {
-        List<Prevision> previsions = previsionRepository.findAllHighRiskPredictions();
-        return previsionMapper.toDTOList(previsions);
+        return previsionRepository.findAllHighRiskDTOs();
     }
 
     /**
      * Get all high-risk predictions (ADMIN only, paginated).
      */
     public Page<PrevisionDTO> getAllHighRiskPrevisions(Pageable pageable) {
-        return previsionRepository.findAllHighRiskPredictions(pageable)
-                .map(previsionMapper::toDTO);
+        return previsionRepository.findAllHighRiskDTOs(pageable);
     }
 
     /**
@@ -111,8 +149,9 @@ public class PrevisionService {
      */
     public Optional<PrevisionDTO> getLatestPrevision(Long entrepotId, Long produitId, User user) {
         validateAccess(entrepotId, user);
-        return previsionRepository.findLatestByProduitIdAndEntrepotId(produitId, entrepotId)
-                .map(p -> enrichPrevision(p, entrepotId));
+        return previsionRepository.findLatestDTO(produitId, entrepotId, PageRequest.of(0, 1))
+                .stream()
+                .findFirst();
     }
 
     /**
@@ -128,51 +167,298 @@ public class PrevisionService {
         Produit produit = produitRepository.findById(produitId)
                 .orElseThrow(() -> new ResourceNotFoundException("Produit", "id", produitId));
 
-        // Get historical data
-        LocalDate thirtyDaysAgo = LocalDate.now().minusDays(30);
-        LocalDate ninetyDaysAgo = LocalDate.now().minusDays(90);
+        long start = System.nanoTime();
+        SalesHistory history = loadSalesHistory(produitId, entrepotId);
+        start = recordStage("single", "history", start);
 
-        Integer totalSold30Days = historiqueVenteRepository.getTotalQuantitySold(
-                produitId, entrepotId, thirtyDaysAgo, LocalDate.now());
+        // Get current stock
+        Optional<Stock> stock = stockRepository.findByEntrepotIdAndProduitId(entrepotId, produitId);
+        Integer currentStock = stock.map(Stock::getQuantiteDisponible).orElse(0);
+        Integer seuilAlerte = stock.map(Stock::getSeuilAlerte).orElse(10);
+        start = recordStage("single", "stock", start);
+
+        // Regenerating on the same day updates the prediction of the day;
+        // the warehouse lock makes concurrent generations wait instead of inserting twice
+        lockGenerations(entrepotId);
+        SelectionModele selection = selectionModeleRepository
+                .findById(new SelectionModeleId(produitId, entrepotId)).orElse(null);
+        Prevision prevision = previsionRepository
+                .findByProduitIdAndEntrepotIdAndDatePrevision(produitId, entrepotId, LocalDate.now())
+                .orElse(null);
+        if (prevision == null) {
+            previsionRepository.clearDerniere(entrepotId, List.of(produitId));
+        }
+        start = recordStage("single", "existing", start);
 
-        Double avgDailySales = historiqueVenteRepository.getAverageDailySales(
-                produitId, entrepotId, ninetyDaysAgo);
+        prevision = buildPrevision(prevision, entrepot, produit, currentStock, seuilAlerte, history, selection);
+        start = recordStage("single", "compute", start);
 
-        Long salesRecordCount = historiqueVenteRepository.countSalesRecords(
-                produitId, entrepotId, ninetyDaysAgo);
+        // Flushed here rather than at commit so that the stage includes the insert or update
+        prevision = previsionRepository.saveAndFlush(prevision);
+        start = recordStage("single", "save", start);
 
-        // Get current stock
-        Integer currentStock = stockRepository.findByEntrepotIdAndProduitId(entrepotId, produitId)
-                .map(Stock::getQuantiteDisponible)
-                .orElse(0);
+        // Only queues the AI text, generated after commit (timed as ai.recommendation.calls)
+        aiRecommendationService.enrichAsync(List.of(toRecommendationRequest(prevision, currentStock, seuilAlerte)));
+        recordStage("single", "ai", start);
+        return toDTO(prevision, currentStock, seuilAlerte);
+    }
+
+    /**
+     * Generate predictions for all products in a warehouse.
+     * Set-based: one query for the stocks, one grouped query for the sales aggregates,
+     * then batched inserts and updates, instead of a full generatePrevision round trip per product.
+     */
+    @Transactional
+    public List<PrevisionDTO> generatePrevisionsForEntrepot(Long entrepotId, User user) {
+        validateAccess(entrepotId, user);
+
+        Entrepot entrepot = entrepotRepository.findById(entrepotId)
+                .orElseThrow(() -> new ResourceNotFoundException("Entrepôt", "id", entrepotId));
 
-        Integer seuilAlerte = stockRepository.findByEntrepotIdAndProduitId(entrepotId, produitId)
-                .map(Stock::getSeuilAlerte)
-                .orElse(10);
+        long start = System.nanoTime();
+        List<Stock> stocks = stockRepository.findByEntrepotIdWithProduit(entrepotId);
+        if (stocks.isEmpty()) {
+            return List.of();
+        }
+        start = recordStage("batch", "stock", start);
+        SalesHistory history = loadSalesHistory(entrepotId);
+        recordStage("batch", "history", start);
+
+        List<Prevision> previsions = generatePrevisions(entrepot, stocks, history, true);
 
-        // Calculate prediction
-        int predictedSales30Days = calculatePredictedSales(avgDailySales, totalSold30Days);
-        double confidence = calculateConfidence(salesRecordCount);
+        List<PrevisionDTO> dtos = new ArrayList<>(previsions.size());
+        for (int i = 0; i < previsions.size(); i++) {
+            Stock stock = stocks.get(i);
+            dtos.add(toDTO(previsions.get(i), stock.getQuantiteDisponible(), stock.getSeuilAlerte()));
+        }
+        return dtos;
+    }
+
+    /**
+     * Generate and save predictions for a set of stocks of a warehouse, from its preloaded sales history.
+     * No access check: used by generatePrevisionsForEntrepot and by the scheduled refresh,
+     * which calls it once per chunk so that each chunk gets its own transaction.
+     */
+    @Transactional
+    public List<Prevision> generatePrevisions(Entrepot entrepot, List<Stock> stocks,
+            SalesHistory history) {
+        return generatePrevisions(entrepot, stocks, history, false);
+    }
+
+    /**
+     * Stocks of the whole warehouse are read with warehouse-wide queries,
+     * a subset with IN lists of at most IN_BATCH_SIZE product ids.
+     */
+    private List<Prevision> generatePrevisions(Entrepot entrepot, List<Stock> stocks,
+            SalesHistory history, boolean toutEntrepot) {
+        long start = System.nanoTime();
+        Long entrepotId = entrepot.getId();
+        LocalDate today = LocalDate.now();
+        List<Long> produitIds = stocks.stream().map(stock -> stock.getProduit().getId()).toList();
+        Map<Long, SelectionModele> selections = new HashMap<>();
+        List<SelectionModele> selectionRows = new ArrayList<>();
+        if (toutEntrepot) {
+            selectionRows.addAll(selectionModeleRepository.findByEntrepotId(entrepotId));
+        } else {
+            for (List<Long> batch : inBatches(produitIds)) {
+                selectionRows.addAll(selectionModeleRepository.findByEntrepotIdAndProduitIds(entrepotId, batch));
+            }
+        }
+        for (SelectionModele selection : selectionRows) {
+            selections.put(selection.getProduitId(), selection);
+        }
+        // Products already predicted today get their row updated instead of a new one.
+        // Concurrent generations of the warehouse wait for this one to commit, then update its rows
+        lockGenerations(entrepotId);
+        Map<Long, Prevision> existing = new HashMap<>();
+        List<Prevision> existingRows = new ArrayList<>();
+        if (toutEntrepot) {
+            existingRows.addAll(previsionRepository.findByEntrepotIdAndDatePrevision(entrepotId, today));
+        } else {
+            for (List<Long> batch : inBatches(produitIds)) {
+                existingRows.addAll(previsionRepository.findByEntrepotIdAndProduitIdsAndDatePrevision(
+                        entrepotId, batch, today));
+            }
+        }
+        for (Prevision prevision : existingRows) {
+            existing.put(prevision.getProduit().getId(), prevision);
+        }
+
+        start = recordStage("batch", "existing", start);
+
+        List<Prevision> previsions = new ArrayList<>(stocks.size());
+        List<Long> nouveaux = new ArrayList<>();
+        for (Stock stock : stocks) {
+            Long produitId = stock.getProduit().getId();
+            Prevision prevision = existing.get(produitId);
+            if (prevision == null) {
+                nouveaux.add(produitId);
+            }
+            previsions.add(buildPrevision(prevision, entrepot, stock.getProduit(),
+                    stock.getQuantiteDisponible(), stock.getSeuilAlerte(), history,
+                    selections.get(produitId)));
+        }
+        start = recordStage("batch", "compute", start);
+        if (toutEntrepot) {
+            previsionRepository.clearDerniereBefore(entrepotId, today);
+        } else {
+            for (List<Long> batch : inBatches(nouveaux)) {
+                previsionRepository.clearDerniere(entrepotId, batch);
+            }
+        }
+        previsionRepository.saveAll(previsions);
+        previsionRepository.flush();
+        start = recordStage("batch", "save", start);
+
+        List<RecommendationRequest> requests = new ArrayList<>(previsions.size());
+        for (int i = 0; i < previsions.size(); i++) {
+            Stock stock = stocks.get(i);
+            requests.add(toRecommendationRequest(previsions.get(i), stock.getQuantiteDisponible(), stock.getSeuilAlerte()));
+        }
+        aiRecommendationService.enrichAsync(requests);
+        recordStage("batch", "ai", start);
+        return previsions;
+    }
+
+    /**
+     * Serialize the prediction generations of a warehouse until commit, so that a concurrent
+     * one waits and then updates the rows of the day instead of inserting them twice.
+     * PostgreSQL takes an advisory lock: a FOR UPDATE of the warehouse row would also block
+     * the foreign key checks (FOR KEY SHARE) of every sale, stock or prediction insert of the
+     * warehouse. H2 (dev, tests) locks the row, its foreign key checks do not wait for it.
+     */
+    private void lockGenerations(Long entrepotId) {
+        if (postgres == null) {
+            postgres = "PostgreSQL".equals(jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+        }
+        if (postgres) {
+            jdbcTemplate.queryForList(GENERATION_LOCK_SQL, Math.toIntExact(entrepotId));
+        } else {
+            jdbcTemplate.queryForList(GENERATION_ROW_LOCK_SQL, entrepotId);
+        }
+    }
+
+    /**
+     * Split product ids into IN lists of at most IN_BATCH_SIZE.
+     */
+    static List<List<Long>> inBatches(List<Long> produitIds) {
+        List<List<Long>> batches = new ArrayList<>();
+        for (int from = 0; from < produitIds.size(); from += IN_BATCH_SIZE) {
+            batches.add(produitIds.subList(from, Math.min(from + IN_BATCH_SIZE, produitIds.size())));
+        }
+        return batches;
+    }
+
+    /**
+     * Record the duration of a generation stage started at the given System.nanoTime(),
+     * and return the current time as the start of the next stage.
+     */
+    private long recordStage(String operation, String stage, long start) {
+        long now = System.nanoTime();
+        Timer.builder(GENERATION_TIMER)
+                .description("Duration of the stages of the prediction generation")
+                .tag("operation", operation)
+                .tag("stage", stage)
+                .register(meterRegistry)
+                .record(now - start, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    /**
+     * Load the daily sales of every product of a warehouse over the forecast history window,
+     * from the sales series store or else in a single query.
+     */
+    public SalesHistory loadSalesHistory(Long entrepotId) {
+        LocalDate today = LocalDate.now();
+        if (salesSeriesStore.covers(today.minusDays(historyDays - 1L), today)) {
+            return salesSeriesStore.getSalesHistory(entrepotId, today, historyDays);
+        }
+        SalesHistory history = new SalesHistory(today, historyDays);
+        for (Object[] row : venteJournaliereRepository.findDailySalesByEntrepot(
+                entrepotId, history.getPremierJour())) {
+            history.add((Long) row[0], (LocalDate) row[1], (Integer) row[2], (Integer) row[3]);
+        }
+        return history;
+    }
+
+    /**
+     * Load the daily sales of some products of a warehouse over the forecast history window
+     * (incremental refresh). Without the sales series store, the whole warehouse is read.
+     */
+    public SalesHistory loadSalesHistory(Long entrepotId, Collection<Long> produitIds) {
+        LocalDate today = LocalDate.now();
+        if (salesSeriesStore.covers(today.minusDays(historyDays - 1L), today)) {
+            return salesSeriesStore.getSalesHistory(entrepotId, produitIds, today, historyDays);
+        }
+        return loadSalesHistory(entrepotId);
+    }
+
+    /**
+     * Load the daily sales of one product over the forecast history window.
+     */
+    private SalesHistory loadSalesHistory(Long produitId, Long entrepotId) {
+        LocalDate today = LocalDate.now();
+        if (salesSeriesStore.covers(today.minusDays(historyDays - 1L), today)) {
+            return salesSeriesStore.getSalesHistory(entrepotId, List.of(produitId), today, historyDays);
+        }
+        SalesHistory history = new SalesHistory(today, historyDays);
+        for (Object[] row : venteJournaliereRepository.findDailySales(
+                produitId, entrepotId, history.getPremierJour())) {
+            history.add(produitId, (LocalDate) row[0], (Integer) row[1], (Integer) row[2]);
+        }
+        return history;
+    }
+
+    /**
+     * Inputs of the AI recommendation for a saved prediction.
+     */
+    private RecommendationRequest toRecommendationRequest(Prevision prevision, Integer currentStock,
+            Integer seuilAlerte) {
+        return new RecommendationRequest(prevision.getId(), prevision.getProduit().getNom(), currentStock,
+                prevision.getQuantitePrevue30Jours(), seuilAlerte, prevision.getNiveauRisque(),
+                prevision.getQuantiteRecommandee());
+    }
+
+    /**
+     * Compute a prediction from already loaded stock and sales data (no database access).
+     * The model and the confidence come from the last backtest of the product when there is one.
+     * The recommendation is the rule-based text; the AI text is filled in asynchronously.
+     * The prediction already saved today, if any, is updated instead of creating a new one.
+     */
+    private Prevision buildPrevision(Prevision existing, Entrepot entrepot, Produit produit,
+            Integer currentStock, Integer seuilAlerte, SalesHistory history, SelectionModele selection) {
+        ForecastModel model = forecastModelSelector.forProduit(
+                selection != null ? selection.getModele() : null, produit.getCategorie());
+        int predictedSales30Days = (int) Math.ceil(model.forecast(history.getQuantites(produit.getId()),
+                history.getJours(), history.getPremierJourSemaine(), FORECAST_HORIZON_DAYS));
+        double confidence = selection != null && selection.getMape() != null
+                ? calculateConfidence(selection.getMape())
+                : calculateConfidence(history.getNombreVentes(produit.getId()));
         NiveauRisque riskLevel = calculateRiskLevel(currentStock, predictedSales30Days, seuilAlerte);
-        String recommendation = generateRecommendation(
-                produit.getNom(), currentStock, predictedSales30Days, seuilAlerte, riskLevel);
+        String recommendation = generateFallbackRecommendation(
+                currentStock, predictedSales30Days, seuilAlerte, riskLevel);
         Integer quantiteRecommandee = calculateRecommendedQuantity(
                 currentStock, predictedSales30Days, seuilAlerte);
 
-        // Create prediction
-        Prevision prevision = Prevision.builder()
+        Prevision prevision = existing != null ? existing : Prevision.builder()
                 .produit(produit)
                 .entrepot(entrepot)
                 .datePrevision(LocalDate.now())
-                .quantitePrevue30Jours(predictedSales30Days)
-                .niveauConfiance(confidence)
-                .niveauRisque(riskLevel)
-                .recommandation(recommendation)
-                .quantiteRecommandee(quantiteRecommandee)
                 .build();
+        prevision.setQuantitePrevue30Jours(predictedSales30Days);
+        prevision.setNiveauConfiance(confidence);
+        prevision.setNiveauRisque(riskLevel);
+        prevision.setRecommandation(recommendation);
+        prevision.setQuantiteRecommandee(quantiteRecommandee);
+        prevision.setDerniere(true);
+        return prevision;
+    }
 
-        prevision = previsionRepository.save(prevision);
-
+    /**
+     * Map a prediction with the stock info it was computed from.
+     */
+    private PrevisionDTO toDTO(Prevision prevision, Integer currentStock, Integer seuilAlerte) {
         PrevisionDTO dto = previsionMapper.toDTO(prevision);
         dto.setStockActuel(currentStock);
         dto.setSeuilAlerte(seuilAlerte);
@@ -180,32 +466,15 @@ public class PrevisionService {
     }
 
     /**
-     * Generate predictions for all products in a warehouse.
-     */
-    @Transactional
-    public List<PrevisionDTO> generatePrevisionsForEntrepot(Long entrepotId, User user) {
-        validateAccess(entrepotId, user);
-
-        List<Stock> stocks = stockRepository.findByEntrepotId(entrepotId);
-        return stocks.stream()
-                .map(stock -> generatePrevision(entrepotId, stock.getProduit().getId(), user))
-                .toList();
-    }
-
-    /**
-     * Calculate predicted sales based on historical data.
+     * Calculate confidence level from the backtest error (MAPE) of the model.
      */
-    private int calculatePredictedSales(Double avgDailySales, Integer recentSales) {
-        if (avgDailySales == null || avgDailySales == 0) {
-            return recentSales != null ? recentSales : 0;
-        }
-        // Use weighted average: 70% avg, 30% recent
-        double predicted = (avgDailySales * 0.7 + (recentSales != null ? recentSales / 30.0 : 0) * 0.3) * 30;
-        return (int) Math.ceil(predicted);
+    private double calculateConfidence(double mape) {
+        double confidence = Math.max(30.0, Math.min(95.0, 100.0 * (1 - mape)));
+        return Math.round(confidence * 10) / 10.0;
     }
 
     /**
-     * Calculate confidence level based on data availability.
+     * Calculate confidence level based on data availability (products never backtested).
      */
     private double calculateConfidence(Long salesRecordCount) {
         if (salesRecordCount == null || salesRecordCount == 0) {
@@ -222,7 +491,7 @@ public class PrevisionService {
     /**
      * Calculate risk level.
      */
-    private NiveauRisque calculateRiskLevel(Integer currentStock, int predictedSales, Integer threshold) {
+    static NiveauRisque calculateRiskLevel(Integer currentStock, int predictedSales, Integer threshold) {
         if (currentStock == null || currentStock == 0) {
             return NiveauRisque.CRITIQUE;
         }
@@ -240,53 +509,10 @@ public class PrevisionService {
         }
     }
 
-    /**
-     * Generate recommendation text.
-     */
-    private String generateRecommendation(String productName, Integer currentStock,
-            int predictedSales, Integer threshold,
-            NiveauRisque riskLevel) {
-        // Try to use AI if available
-        if (chatClientBuilder.isPresent()) {
-            try {
-                return generateAIRecommendation(productName, currentStock, predictedSales, threshold, riskLevel);
-            } catch (Exception e) {
-                log.warn("AI recommendation failed, using fallback: {}", e.getMessage());
-            }
-        }
-
-        // Fallback to rule-based recommendation
-        return generateFallbackRecommendation(currentStock, predictedSales, threshold, riskLevel);
-    }
-
-    /**
-     * Generate recommendation using AI.
-     */
-    private String generateAIRecommendation(String productName, Integer currentStock,
-            int predictedSales, Integer threshold,
-            NiveauRisque riskLevel) {
-        ChatClient chatClient = chatClientBuilder.get().build();
-
-        String prompt = String.format(
-                "En tant qu'expert en gestion des stocks, générez une recommandation courte (max 100 mots) pour:\n" +
-                        "- Produit: %s\n" +
-                        "- Stock actuel: %d unités\n" +
-                        "- Ventes prévues 30 jours: %d unités\n" +
-                        "- Seuil d'alerte: %d unités\n" +
-                        "- Niveau de risque: %s\n" +
-                        "Format: Une phrase d'action claire et concise.",
-                productName, currentStock, predictedSales, threshold, riskLevel.getLabel());
-
-        return chatClient.prompt()
-                .user(prompt)
-                .call()
-                .content();
-    }
-
     /**
      * Generate fallback recommendation without AI.
      */
-    private String generateFallbackRecommendation(Integer currentStock, int predictedSales,
+    static String generateFallbackRecommendation(Integer currentStock, int predictedSales,
             Integer threshold, NiveauRisque riskLevel) {
         return switch (riskLevel) {
             case CRITIQUE -> String.format(
@@ -305,7 +531,7 @@ public class PrevisionService {
     /**
      * Calculate recommended order quantity.
      */
-    private Integer calculateRecommendedQuantity(Integer currentStock, int predictedSales, Integer threshold) {
+    static Integer calculateRecommendedQuantity(Integer currentStock, int predictedSales, Integer threshold) {
         if (currentStock >= predictedSales + threshold) {
             return 0; // No order needed
         }
@@ -313,17 +539,4 @@ public class PrevisionService {
         int targetStock = (int) (predictedSales * 1.5) + threshold;
         return Math.max(0, targetStock - currentStock);
     }
-
-    /**
-     * Enrich prediction with current stock info.
-     */
-    private PrevisionDTO enrichPrevision(Prevision prevision, Long entrepotId) {
-        PrevisionDTO dto = previsionMapper.toDTO(prevision);
-        stockRepository.findByEntrepotIdAndProduitId(entrepotId, prevision.getProduit().getId())
-                .ifPresent(stock -> {
-                    dto.setStockActuel(stock.getQuantiteDisponible());
-                    dto.setSeuilAlerte(stock.getSeuilAlerte());
-                });
-        return dto;
-    }
 }
@@ -0,0 +1,370 @@
+package com.team.sys_ai.service;
+
+import com.team.sys_ai.forecast.SalesHistory;
+import com.team.sys_ai.repository.VenteJournaliereRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+
+/**
+ * In-memory daily sales series of every (product, warehouse) pair, stored as
+ * primitive arrays indexed by day offset and keyed by a packed long of the two ids.
+ * Loaded from the daily rollup at startup and reloaded periodically (which also
+ * rolls the window forward and picks up sales recorded on other instances);
+ * sales recorded on this instance are added after commit.
+ * Callers fall back to the rollup queries when the store cannot answer.
+ */
+@Slf4j
+@Component
+public class SalesSeriesStore {
+
+    // Days after the load day kept in the series, until the next reload rolls the window
+    private static final int FUTURE_DAYS = 7;
+
+    private final VenteJournaliereRepository venteJournaliereRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int days;
+
+    // Replaced as a whole on each reload; null until the first load
+    private volatile Snapshot snapshot;
+
+    public SalesSeriesStore(VenteJournaliereRepository venteJournaliereRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.sales.series.enabled:true}") boolean enabled,
+            @Value("${app.sales.series.days:730}") int days) {
+        this.venteJournaliereRepository = venteJournaliereRepository;
+        // Own transaction: reload() also runs after the commit of a rollup rebuild
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.days = days;
+    }
+
+    /**
+     * Load the last days of the rollup (one streamed query).
+     * A sale committed while a reload is running may be missing until the next one,
+     * but is never counted twice: see {@link #recordSales}.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.sales.series.reload-ms:3600000}",
+            initialDelayString = "${app.sales.series.reload-ms:3600000}")
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        long origin = LocalDate.now().minusDays(days - 1L).toEpochDay();
+        long end = origin + days + FUTURE_DAYS;
+        Snapshot loaded = transactionTemplate.execute(status -> {
+            LocalDate earliest = venteJournaliereRepository.findEarliestDateVente();
+            Snapshot next = new Snapshot(origin, end, earliest == null || earliest.toEpochDay() >= origin);
+            try (Stream<Object[]> rows = venteJournaliereRepository.streamSince(LocalDate.ofEpochDay(origin))) {
+                rows.forEach(row -> next.add((Long) row[0], (Long) row[1],
+                        ((LocalDate) row[2]).toEpochDay(), (Integer) row[3], (Integer) row[4]));
+            }
+            return next;
+        });
+        snapshot = loaded;
+        log.info("Sales series loaded: {} series since {}", loaded.series.size(), LocalDate.ofEpochDay(origin));
+    }
+
+    /**
+     * Reload once the current transaction commits (the rollup was rebuilt).
+     */
+    public void reloadAfterCommit() {
+        runAfterCommit(this::reload);
+    }
+
+    /**
+     * Add sales of a day to the series, after commit when inside a transaction.
+     * Only added to the snapshot that was current when the sale was recorded: a reload
+     * in between may already have read the committed sale, so it is left to the next one.
+     */
+    public void recordSales(Long produitId, Long entrepotId, LocalDate dateVente, int quantite, int nombreVentes) {
+        long day = dateVente.toEpochDay();
+        Snapshot recordedOn = snapshot;
+        runAfterCommit(() -> {
+            if (recordedOn != null && recordedOn == snapshot) {
+                recordedOn.add(produitId, entrepotId, day, quantite, nombreVentes);
+            }
+        });
+    }
+
+    /**
+     * Whether every sale on or after this date is in the store.
+     */
+    public boolean covers(LocalDate from) {
+        Snapshot current = snapshot;
+        return current != null && from.toEpochDay() >= current.origin && !current.truncated;
+    }
+
+    /**
+     * Whether every sale between two dates (inclusive) is in the store.
+     */
+    public boolean covers(LocalDate from, LocalDate to) {
+        Snapshot current = snapshot;
+        return current != null && from.toEpochDay() >= current.origin
+                && (to.toEpochDay() < current.end || !current.truncated);
+    }
+
+    /**
+     * Whether the store holds the whole sales history (nothing outside its window).
+     */
+    public boolean coversAll() {
+        Snapshot current = snapshot;
+        return current != null && current.complete && !current.truncated;
+    }
+
+    /**
+     * Quantity sold between two dates (inclusive).
+     */
+    public int getTotalQuantitySold(Long produitId, Long entrepotId, LocalDate startDate, LocalDate endDate) {
+        Series series = snapshot.series.get(key(produitId, entrepotId));
+        return series != null ? (int) series.sum(startDate.toEpochDay(), endDate.toEpochDay())[0] : 0;
+    }
+
+    /**
+     * Daily sales of every product of a warehouse over the jours days ending on dernierJour.
+     */
+    public SalesHistory getSalesHistory(Long entrepotId, LocalDate dernierJour, int jours) {
+        SalesHistory history = new SalesHistory(dernierJour, jours);
+        for (Series series : snapshot.seriesOf(entrepotId)) {
+            series.copyTo(history, history.getPremierJour().toEpochDay(), dernierJour.toEpochDay());
+        }
+        return history;
+    }
+
+    /**
+     * Daily sales of some products of a warehouse over the jours days ending on dernierJour.
+     */
+    public SalesHistory getSalesHistory(Long entrepotId, Collection<Long> produitIds, LocalDate dernierJour,
+            int jours) {
+        SalesHistory history = new SalesHistory(dernierJour, jours);
+        for (Long produitId : produitIds) {
+            Series series = snapshot.series.get(key(produitId, entrepotId));
+            if (series != null) {
+                series.copyTo(history, history.getPremierJour().toEpochDay(), dernierJour.toEpochDay());
+            }
+        }
+        return history;
+    }
+
+    /**
+     * Quantity sold by day of week: rows {DayOfWeek, Long}, days without sales omitted.
+     */
+    public List<Object[]> getSalesByDayOfWeek(Long produitId, Long entrepotId) {
+        Series series = snapshot.series.get(key(produitId, entrepotId));
+        if (series == null) {
+            return List.of();
+        }
+        long[] quantites = new long[7];
+        boolean[] vendu = new boolean[7];
+        synchronized (series) {
+            for (int i = 0; i < series.quantites.length; i++) {
+                if (series.ventes[i] > 0) {
+                    // Epoch day 0 was a Thursday
+                    int dow = (int) Math.floorMod(series.origin + i + 3, 7L);
+                    quantites[dow] += series.quantites[i];
+                    vendu[dow] = true;
+                }
+            }
+        }
+        List<Object[]> rows = new ArrayList<>(7);
+        for (int dow = 0; dow < 7; dow++) {
+            if (vendu[dow]) {
+                rows.add(new Object[] { DayOfWeek.of(dow + 1), quantites[dow] });
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Quantity sold by month: rows {Integer annee, Integer mois, Long}, newest first,
+     * months without sales omitted.
+     */
+    public List<Object[]> getMonthlySales(Long produitId, Long entrepotId) {
+        Series series = snapshot.series.get(key(produitId, entrepotId));
+        if (series == null) {
+            return List.of();
+        }
+        List<Object[]> rows = new ArrayList<>();
+        synchronized (series) {
+            LocalDate month = LocalDate.ofEpochDay(series.origin).withDayOfMonth(1);
+            long end = series.origin + series.quantites.length;
+            while (month.toEpochDay() < end) {
+                LocalDate next = month.plusMonths(1);
+                int from = (int) Math.max(0, month.toEpochDay() - series.origin);
+                int to = (int) Math.min(series.quantites.length, next.toEpochDay() - series.origin);
+                long quantite = 0;
+                long ventes = 0;
+                for (int i = from; i < to; i++) {
+                    quantite += series.quantites[i];
+                    ventes += series.ventes[i];
+                }
+                if (ventes > 0) {
+                    rows.add(new Object[] { month.getYear(), month.getMonthValue(), quantite });
+                }
+                month = next;
+            }
+        }
+        Collections.reverse(rows);
+        return rows;
+    }
+
+    /**
+     * Best selling products of a warehouse since a date: product id to quantity, best first.
+     */
+    public Map<Long, Long> getTopSellingProducts(Long entrepotId, LocalDate since, int limit) {
+        long from = since.toEpochDay();
+        List<long[]> totals = new ArrayList<>();
+        for (Series series : snapshot.seriesOf(entrepotId)) {
+            long[] sum = series.sum(from, Long.MAX_VALUE);
+            if (sum[1] > 0) {
+                totals.add(new long[] { series.produitId, sum[0] });
+            }
+        }
+        totals.sort((a, b) -> a[1] != b[1] ? Long.compare(b[1], a[1]) : Long.compare(a[0], b[0]));
+        Map<Long, Long> top = new LinkedHashMap<>();
+        for (long[] total : totals.subList(0, Math.min(limit, totals.size()))) {
+            top.put(total[0], total[1]);
+        }
+        return top;
+    }
+
+    private static long key(long produitId, long entrepotId) {
+        return produitId << 32 | entrepotId;
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * All series loaded at one point in time, indexed from the same origin day
+     * and holding days before the same end day (exclusive).
+     */
+    private static final class Snapshot {
+
+        private final long origin;
+        private final long end;
+        private volatile boolean complete;
+        // Some sale is dated on or after the end day and is not in the series
+        private volatile boolean truncated;
+        private final Map<Long, Series> series = new ConcurrentHashMap<>();
+        private final Map<Long, Queue<Series>> byEntrepot = new ConcurrentHashMap<>();
+
+        Snapshot(long origin, long end, boolean complete) {
+            this.origin = origin;
+            this.end = end;
+            this.complete = complete;
+        }
+
+        void add(long produitId, long entrepotId, long day, int quantite, int nombreVentes) {
+            if (day < origin) {
+                // Back-dated sale older than the window: unbounded analytics must use the database
+                complete = false;
+                return;
+            }
+            if (day >= end) {
+                // Sale dated after the window: kept out so a series never grows past it
+                truncated = true;
+                return;
+            }
+            series.computeIfAbsent(key(produitId, entrepotId), k -> {
+                Series created = new Series(produitId, origin);
+                byEntrepot.computeIfAbsent(entrepotId, id -> new ConcurrentLinkedQueue<>()).add(created);
+                return created;
+            }).add(day, quantite, nombreVentes);
+        }
+
+        Iterable<Series> seriesOf(long entrepotId) {
+            Queue<Series> entrepotSeries = byEntrepot.get(entrepotId);
+            return entrepotSeries != null ? entrepotSeries : List.of();
+        }
+    }
+
+    /**
+     * Daily quantity and number of sales of one product in one warehouse,
+     * grown on demand as later days of the window are recorded.
+     */
+    private static final class Series {
+
+        private final long produitId;
+        private final long origin;
+        private int[] quantites = new int[0];
+        private int[] ventes = new int[0];
+
+        Series(long produitId, long origin) {
+            this.produitId = produitId;
+            this.origin = origin;
+        }
+
+        synchronized void add(long day, int quantite, int nombreVentes) {
+            int index = (int) (day - origin);
+            if (index >= quantites.length) {
+                int length = Math.max(index + 1, quantites.length + quantites.length / 2);
+                quantites = Arrays.copyOf(quantites, length);
+                ventes = Arrays.copyOf(ventes, length);
+            }
+            quantites[index] += quantite;
+            ventes[index] += nombreVentes;
+        }
+
+        /**
+         * {quantity, number of sales} between two epoch days (inclusive).
+         */
+        synchronized long[] sum(long fromDay, long toDay) {
+            int from = (int) Math.max(0, fromDay - origin);
+            int to = (int) Math.min(quantites.length - 1L, toDay - origin);
+            long quantite = 0;
+            long nombre = 0;
+            for (int i = from; i <= to; i++) {
+                quantite += quantites[i];
+                nombre += ventes[i];
+            }
+            return new long[] { quantite, nombre };
+        }
+
+        synchronized void copyTo(SalesHistory history, long fromDay, long toDay) {
+            int from = (int) Math.max(0, fromDay - origin);
+            int to = (int) Math.min(quantites.length - 1L, toDay - origin);
+            for (int i = from; i <= to; i++) {
+                if (ventes[i] > 0) {
+                    history.add(produitId, origin + i, quantites[i], ventes[i]);
+                }
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.team.sys_ai.service;
 
+import com.team.sys_ai.dto.CursorResponse;
 import com.team.sys_ai.dto.StockDTO;
 import com.team.sys_ai.entity.Entrepot;
 import com.team.sys_ai.entity.Produit;
@@ -29,6 +30,7 @@ public class StockService {
     private final ProduitRepository produitRepository;
     private final EntrepotRepository entrepotRepository;
     private final StockMapper stockMapper;
+    private final PrevisionChangeTracker previsionChangeTracker;
 
     /**
      * Get stocks by warehouse (non-paginated for backward compatibility).
@@ -47,6 +49,21 @@ public class StockService {
                 .map(stockMapper::toDTO);
     }
 
+    /**
+     * Get stocks by warehouse (keyset pagination, in id order).
+     * The total is only counted when includeTotal is set.
+     */
+    public CursorResponse<StockDTO> getStocksByEntrepot(Long entrepotId, User user,
+            String cursor, int size, boolean includeTotal) {
+        validateAccess(entrepotId, user);
+        KeysetCursor position = KeysetCursor.decodeAsc(cursor);
+        List<StockDTO> rows = stockMapper.toDTOList(stockRepository.findByEntrepotIdAfter(
+                entrepotId, position.id(), KeysetCursor.limit(size)));
+        return CursorResponse.of(rows, size,
+                stock -> new KeysetCursor(null, stock.getId()).encode(),
+                includeTotal ? stockRepository.countByEntrepotId(entrepotId) : null);
+    }
+
     /**
      * Get stocks at alert level (non-paginated).
      */
@@ -117,6 +134,7 @@ public class StockService {
         }
 
         stock = stockRepository.save(stock);
+        previsionChangeTracker.markChanged(produitId, entrepotId);
         return stockMapper.toDTO(stock);
     }
 
@@ -130,6 +148,7 @@ public class StockService {
 
         stock.setQuantiteDisponible(quantity);
         stock = stockRepository.save(stock);
+        previsionChangeTracker.markChanged(produitId, entrepotId);
         return stockMapper.toDTO(stock);
     }
 
@@ -141,12 +160,14 @@ public class StockService {
             throw new BusinessValidationException("quantite", "La quantité à ajouter doit être positive");
         }
 
-        Stock stock = stockRepository.findByEntrepotIdAndProduitId(entrepotId, produitId)
-                .orElseGet(() -> createNewStock(entrepotId, produitId));
-
-        stock.setQuantiteDisponible(stock.getQuantiteDisponible() + quantityToAdd);
-        stock = stockRepository.save(stock);
-        return stockMapper.toDTO(stock);
+        previsionChangeTracker.markChanged(produitId, entrepotId);
+        // Atomic in-database increment; create the stock line if it does not exist yet
+        if (stockRepository.incrementQuantity(entrepotId, produitId, quantityToAdd) == 0) {
+            Stock stock = createNewStock(entrepotId, produitId);
+            stock.setQuantiteDisponible(quantityToAdd);
+            return stockMapper.toDTO(stockRepository.save(stock));
+        }
+        return stockMapper.toDTO(findStock(entrepotId, produitId));
     }
 
     @Transactional
@@ -157,22 +178,32 @@ public class StockService {
             throw new BusinessValidationException("quantite", "La quantité à retirer doit être positive");
         }
 
-        Stock stock = stockRepository.findByEntrepotIdAndProduitId(entrepotId, produitId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        String.format("Stock non trouvé pour produit %d dans entrepôt %d", produitId, entrepotId)));
-
-        int newQuantity = stock.getQuantiteDisponible() - quantityToRemove;
-        if (newQuantity < 0) {
-            throw new BusinessValidationException("quantite",
-                    String.format("Stock insuffisant. Disponible: %d, Demandé: %d",
-                            stock.getQuantiteDisponible(), quantityToRemove));
+        // Atomic in-database decrement: no lost update under concurrent sales
+        int updated = stockRepository.decrementQuantity(entrepotId, produitId, quantityToRemove);
+        Stock stock = findStock(entrepotId, produitId);
+        if (updated == 0) {
+            throw insufficientStock(stock.getQuantiteDisponible(), quantityToRemove);
         }
-
-        stock.setQuantiteDisponible(newQuantity);
-        stock = stockRepository.save(stock);
+        previsionChangeTracker.markChanged(produitId, entrepotId);
         return stockMapper.toDTO(stock);
     }
 
+    /**
+     * Atomically decrement a stock and return the new quantity (used when recording sales).
+     * No access check: the caller is responsible for it.
+     */
+    @Transactional
+    public int decrementQuantity(Long entrepotId, Long produitId, int quantity) {
+        if (stockRepository.decrementQuantity(entrepotId, produitId, quantity) == 0) {
+            Integer available = stockRepository.findQuantity(entrepotId, produitId)
+                    .orElseThrow(() -> stockNotFound(entrepotId, produitId));
+            throw insufficientStock(available, quantity);
+        }
+        previsionChangeTracker.markChanged(produitId, entrepotId);
+        return stockRepository.findQuantity(entrepotId, produitId)
+                .orElseThrow(() -> stockNotFound(entrepotId, produitId));
+    }
+
     @Transactional
     public StockDTO updateSeuilAlerte(Long entrepotId, Long produitId, Integer seuilAlerte, User user) {
         validateAccess(entrepotId, user);
@@ -183,6 +214,7 @@ public class StockService {
 
         stock.setSeuilAlerte(seuilAlerte);
         stock = stockRepository.save(stock);
+        previsionChangeTracker.markChanged(produitId, entrepotId);
         return stockMapper.toDTO(stock);
     }
 
@@ -190,6 +222,21 @@ public class StockService {
         return stockRepository.getTotalQuantityByProduit(produitId);
     }
 
+    private Stock findStock(Long entrepotId, Long produitId) {
+        return stockRepository.findByEntrepotIdAndProduitId(entrepotId, produitId)
+                .orElseThrow(() -> stockNotFound(entrepotId, produitId));
+    }
+
+    private ResourceNotFoundException stockNotFound(Long entrepotId, Long produitId) {
+        return new ResourceNotFoundException(
+                String.format("Stock non trouvé pour produit %d dans entrepôt %d", produitId, entrepotId));
+    }
+
+    private BusinessValidationException insufficientStock(Integer available, Integer requested) {
+        return new BusinessValidationException("quantite",
+                String.format("Stock insuffisant. Disponible: %d, Demandé: %d", available, requested));
+    }
+
     private Stock createNewStock(Long entrepotId, Long produitId) {
         Entrepot entrepot = entrepotRepository.findById(entrepotId)
                 .orElseThrow(() -> new ResourceNotFoundException("Entrepôt", "id", entrepotId));
@@ -10,6 +10,8 @@ import com.team.sys_ai.exception.ResourceNotFoundException;
 import com.team.sys_ai.mapper.UserMapper;
 import com.team.sys_ai.repository.EntrepotRepository;
 import com.team.sys_ai.repository.UserRepository;
+import com.team.sys_ai.security.TokenVersionRegistry;
+import com.team.sys_ai.security.UserPrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -28,6 +30,8 @@ public class UserService {
     private final EntrepotRepository entrepotRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final UserPrincipalCache userPrincipalCache;
+    private final TokenVersionRegistry tokenVersionRegistry;
 
     /**
      * Get all users (non-paginated for backward compatibility).
@@ -105,6 +109,7 @@ public class UserService {
         }
 
         user = userRepository.save(user);
+        tokenVersionRegistry.update(user);
         return userMapper.toDTO(user);
     }
 
@@ -125,6 +130,9 @@ public class UserService {
 
         validateRoleAndWarehouse(dto.getRole(), dto.getEntrepotAssigneId());
 
+        // Login may change: evict the old one, the new one is evicted below
+        userPrincipalCache.invalidate(user.getLogin());
+        String previousAccess = accessSignature(user);
         userMapper.updateEntity(dto, user);
 
         if (dto.getRole() == Role.GESTIONNAIRE && dto.getEntrepotAssigneId() != null) {
@@ -135,7 +143,11 @@ public class UserService {
             user.setEntrepotAssigne(null);
         }
 
+        if (!previousAccess.equals(accessSignature(user))) {
+            user.revokeTokens();
+        }
         user = userRepository.save(user);
+        onSecurityChange(user);
         return userMapper.toDTO(user);
     }
 
@@ -143,7 +155,9 @@ public class UserService {
     public void updatePassword(Long id, String newPassword) {
         User user = findById(id);
         user.setPassword(passwordEncoder.encode(newPassword));
+        user.revokeTokens();
         userRepository.save(user);
+        onSecurityChange(user);
     }
 
     @Transactional
@@ -158,7 +172,9 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("Entrepôt", "id", entrepotId));
 
         user.setEntrepotAssigne(entrepot);
+        user.revokeTokens();
         user = userRepository.save(user);
+        onSecurityChange(user);
         return userMapper.toDTO(user);
     }
 
@@ -166,7 +182,9 @@ public class UserService {
     public UserDTO deactivateUser(Long id) {
         User user = findById(id);
         user.setActif(false);
+        user.revokeTokens();
         user = userRepository.save(user);
+        onSecurityChange(user);
         return userMapper.toDTO(user);
     }
 
@@ -175,6 +193,7 @@ public class UserService {
         User user = findById(id);
         user.setActif(true);
         user = userRepository.save(user);
+        onSecurityChange(user);
         return userMapper.toDTO(user);
     }
 
@@ -182,6 +201,24 @@ public class UserService {
     public void deleteUser(Long id) {
         User user = findById(id);
         userRepository.delete(user);
+        userPrincipalCache.invalidate(user.getLogin());
+        tokenVersionRegistry.remove(user.getId());
+    }
+
+    /**
+     * Evict the cached principal and publish the token version of a changed user.
+     */
+    private void onSecurityChange(User user) {
+        userPrincipalCache.invalidate(user.getLogin());
+        tokenVersionRegistry.update(user);
+    }
+
+    /**
+     * Fields carried by the JWT: a change revokes the tokens already issued.
+     */
+    private String accessSignature(User user) {
+        return user.getLogin() + "|" + user.getRole() + "|" + user.getActif() + "|"
+                + (user.getEntrepotAssigne() != null ? user.getEntrepotAssigne().getId() : null);
     }
 
     private void validateRoleAndWarehouse(Role role, Long entrepotId) {
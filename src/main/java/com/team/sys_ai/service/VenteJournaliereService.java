@@ -0,0 +1,48 @@
+package com.team.sys_ai.service;
+
+import com.team.sys_ai.repository.HistoriqueVenteRepository;
+import com.team.sys_ai.repository.VenteJournaliereRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service maintaining the daily sales rollup (ventes_journalieres).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class VenteJournaliereService {
+
+    private final VenteJournaliereRepository venteJournaliereRepository;
+    private final HistoriqueVenteRepository historiqueVenteRepository;
+    private final SalesSeriesStore salesSeriesStore;
+
+    /**
+     * Rebuild the whole rollup from historique_ventes.
+     */
+    @Transactional
+    public int rebuild() {
+        venteJournaliereRepository.deleteAllInBulk();
+        int rows = venteJournaliereRepository.rebuildFromHistorique();
+        log.info("Daily sales rollup rebuilt: {} rows", rows);
+        salesSeriesStore.reloadAfterCommit();
+        return rows;
+    }
+
+    /**
+     * Backfill the rollup on startup when sales exist but were never aggregated
+     * (existing databases, or data loaded outside of recordSale).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (venteJournaliereRepository.count() == 0 && historiqueVenteRepository.count() > 0) {
+            rebuild();
+        }
+    }
+}
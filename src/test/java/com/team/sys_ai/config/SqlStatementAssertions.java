@@ -0,0 +1,56 @@
+package com.team.sys_ai.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.function.ThrowingSupplier;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Asserts the exact number of SQL statements run by an action, e.g. a service method,
+ * so that an N+1 regression (a lazy load per row in a mapper) fails the test.
+ * The second-level cache is emptied first: counts are those of a cold cache and do not
+ * depend on the tests that ran before. The failure message lists the statements.
+ */
+@Component
+public class SqlStatementAssertions {
+
+    private final SqlStatementCounter sqlStatementCounter;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public SqlStatementAssertions(SqlStatementCounter sqlStatementCounter,
+            EntityManagerFactory entityManagerFactory) {
+        this.sqlStatementCounter = sqlStatementCounter;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public <T> T assertStatementCount(int expected, ThrowingSupplier<T> action) throws Throwable {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        T result;
+        try (SqlStatementCounter.Scope scope = sqlStatementCounter.start()) {
+            result = action.get();
+            assertThat(scope.getCount())
+                    .as("SQL statements, expected %d:%n%s", expected, describe(scope.getStatements()))
+                    .isEqualTo(expected);
+        }
+        return result;
+    }
+
+    public void assertStatementCount(int expected, Executable action) throws Throwable {
+        assertStatementCount(expected, () -> {
+            action.execute();
+            return null;
+        });
+    }
+
+    private static String describe(Map<String, Integer> statements) {
+        return statements.entrySet().stream()
+                .map(statement -> statement.getValue() + " x " + statement.getKey())
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+}
@@ -0,0 +1,25 @@
+package com.team.sys_ai.config;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Local stub model for tests: the auto-configured ChatClient.Builder uses it
+ * instead of Ollama (disabled with spring.ai.model.chat=none).
+ */
+@Configuration
+public class StubChatModelConfig {
+
+    public static final String STUB_RECOMMENDATION = "Recommandation IA de test.";
+
+    @Bean
+    public ChatModel stubChatModel() {
+        return prompt -> new ChatResponse(List.of(new Generation(new AssistantMessage(STUB_RECOMMENDATION))));
+    }
+}
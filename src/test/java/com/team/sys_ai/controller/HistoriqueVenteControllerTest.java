@@ -0,0 +1,170 @@
+package com.team.sys_ai.controller;
+
+import com.team.sys_ai.entity.VenteJournaliere;
+import com.team.sys_ai.entity.VenteJournaliereId;
+import com.team.sys_ai.repository.VenteJournaliereRepository;
+import com.team.sys_ai.service.SalesSeriesStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Bulk sales ingestion (JSON array and NDJSON), on days without sales in the seeded dataset.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithUserDetails("admin")
+class HistoriqueVenteControllerTest {
+
+    private static final String BULK_URL = "/api/historique/entrepot/1/bulk";
+
+    // Inside the sales series window, before the seeded sales
+    private static final LocalDate DAY = LocalDate.now().minusDays(400);
+    private static final LocalDate NEXT_DAY = DAY.plusDays(1);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private VenteJournaliereRepository venteJournaliereRepository;
+
+    @Autowired
+    private SalesSeriesStore salesSeriesStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.sales.bulk.max-items:10000}")
+    private int bulkMaxItems;
+
+    private int stockProduit1;
+    private int stockProduit2;
+
+    @BeforeEach
+    void setUp() {
+        stockProduit1 = stock(1L);
+        stockProduit2 = stock(2L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM historique_ventes WHERE date_vente IN (?, ?)", DAY, NEXT_DAY);
+        jdbcTemplate.update("DELETE FROM ventes_journalieres WHERE date_vente IN (?, ?)", DAY, NEXT_DAY);
+        jdbcTemplate.update("UPDATE stocks SET quantite_disponible = ? WHERE entrepot_id = 1 AND produit_id = 1",
+                stockProduit1);
+        jdbcTemplate.update("UPDATE stocks SET quantite_disponible = ? WHERE entrepot_id = 1 AND produit_id = 2",
+                stockProduit2);
+        salesSeriesStore.reload();
+    }
+
+    @Test
+    @DisplayName("JSON array: stock decremented once per product, rollup and series updated per day")
+    void recordSales_JsonArray() throws Exception {
+        mockMvc.perform(post(BULK_URL).contentType(MediaType.APPLICATION_JSON).content("[" +
+                        item(1L, 2, DAY) + "," + item(1L, 3, DAY) + "," + item(1L, 1, NEXT_DAY) + "," +
+                        item(2L, 4, DAY) + "]"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.ventesEnregistrees").value(4))
+                .andExpect(jsonPath("$.produits").value(2))
+                .andExpect(jsonPath("$.quantiteTotale").value(10));
+
+        assertThat(stock(1L)).isEqualTo(stockProduit1 - 6);
+        assertThat(stock(2L)).isEqualTo(stockProduit2 - 4);
+        assertRollup(1L, DAY, 5, 2);
+        assertRollup(1L, NEXT_DAY, 1, 1);
+        assertRollup(2L, DAY, 4, 1);
+        assertThat(salesSeriesStore.getTotalQuantitySold(1L, 1L, DAY, NEXT_DAY)).isEqualTo(6);
+        assertThat(salesSeriesStore.getTotalQuantitySold(2L, 1L, DAY, DAY)).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("JSON array: invalid items are rejected with their index, nothing is recorded")
+    void recordSales_JsonArrayInvalidItems() throws Exception {
+        mockMvc.perform(post(BULK_URL).contentType(MediaType.APPLICATION_JSON).content("[" +
+                        item(1L, 2, DAY) + "," + item(1L, 0, DAY) + ",{\"quantite\":2}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details['ventes[1].quantite']").value("La quantité vendue doit être positive"))
+                .andExpect(jsonPath("$.details['ventes[2].produitId']").value("L'ID du produit est obligatoire"));
+
+        assertThat(stock(1L)).isEqualTo(stockProduit1);
+        assertThat(venteJournaliereRepository.findById(new VenteJournaliereId(1L, 1L, DAY))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("NDJSON: one sale per line, recorded like a JSON array")
+    void recordSales_Ndjson() throws Exception {
+        mockMvc.perform(post(BULK_URL).contentType(MediaType.APPLICATION_NDJSON).content(
+                        item(1L, 2, DAY) + "\n" + item(2L, 4, DAY) + "\n" + item(1L, 3, DAY) + "\n"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.ventesEnregistrees").value(3))
+                .andExpect(jsonPath("$.quantiteTotale").value(9));
+
+        assertThat(stock(1L)).isEqualTo(stockProduit1 - 5);
+        assertRollup(1L, DAY, 5, 2);
+        assertRollup(2L, DAY, 4, 1);
+        assertThat(salesSeriesStore.getTotalQuantitySold(1L, 1L, DAY, DAY)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("NDJSON: an invalid line is rejected with its line number")
+    void recordSales_NdjsonInvalidLine() throws Exception {
+        mockMvc.perform(post(BULK_URL).contentType(MediaType.APPLICATION_NDJSON).content(
+                        item(1L, 2, DAY) + "\n" + item(1L, -1, DAY) + "\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details.quantite").value("Ligne 2: La quantité vendue doit être positive"));
+
+        assertThat(stock(1L)).isEqualTo(stockProduit1);
+    }
+
+    @Test
+    @DisplayName("NDJSON: reading stops at max-items, the rest of the upload is not parsed")
+    void recordSales_NdjsonOverMaxItems() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i <= bulkMaxItems; i++) {
+            body.append(item(1L, 1, DAY)).append('\n');
+        }
+        // Reading stops on the first line over the limit: this one would be reported as invalid if read
+        body.append("not json\n");
+
+        mockMvc.perform(post(BULK_URL).contentType(MediaType.APPLICATION_NDJSON).content(body.toString()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details.ventes")
+                        .value("Le lot ne peut pas dépasser " + bulkMaxItems + " ventes"));
+
+        assertThat(stock(1L)).isEqualTo(stockProduit1);
+    }
+
+    private static String item(Long produitId, int quantite, LocalDate dateVente) {
+        return "{\"produitId\":" + produitId + ",\"quantite\":" + quantite + ",\"dateVente\":\"" + dateVente + "\"}";
+    }
+
+    private int stock(Long produitId) {
+        Integer quantite = jdbcTemplate.queryForObject(
+                "SELECT quantite_disponible FROM stocks WHERE entrepot_id = 1 AND produit_id = ?",
+                Integer.class, produitId);
+        return quantite != null ? quantite : 0;
+    }
+
+    private void assertRollup(Long produitId, LocalDate dateVente, int quantiteTotale, int nombreVentes) {
+        VenteJournaliere row = venteJournaliereRepository
+                .findById(new VenteJournaliereId(produitId, 1L, dateVente)).orElseThrow();
+        assertThat(row.getQuantiteTotale()).isEqualTo(quantiteTotale);
+        assertThat(row.getNombreVentes()).isEqualTo(nombreVentes);
+    }
+}
@@ -0,0 +1,52 @@
+package com.team.sys_ai.forecast;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class BacktesterTest {
+
+    private final Backtester backtester = new Backtester(8);
+    private final List<ForecastModel> models = List.of(
+            new WeightedAverageModel(), new HoltWintersModel(), new CrostonModel());
+
+    @Test
+    @DisplayName("Holt-Winters wins on a weekly pattern with a level shift")
+    void weeklyPattern() {
+        // 5 units on weekdays, 20 on Saturdays; volume doubles after day 40
+        int[] ventes = new int[90];
+        for (int i = 0; i < ventes.length; i++) {
+            ventes[i] = (i % 7 == 5 ? 20 : 5) * (i >= 40 ? 2 : 1);
+        }
+
+        Backtester.Result result = backtester.backtest(ventes, 90, 0, models);
+
+        assertThat(result.modele()).isEqualTo(HoltWintersModel.NAME);
+        assertThat(result.origines()).isEqualTo(8);
+        assertThat(result.mape()).isLessThan(0.2);
+    }
+
+    @Test
+    @DisplayName("Constant demand is forecast exactly")
+    void constantDemand() {
+        int[] ventes = new int[90];
+        Arrays.fill(ventes, 4);
+
+        Backtester.Result result = backtester.backtest(ventes, 90, 0, models);
+
+        assertThat(result.mase()).isCloseTo(0, within(1e-9));
+        assertThat(result.mape()).isCloseTo(0, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("No result without sales or with a short history")
+    void noResult() {
+        assertThat(backtester.backtest(new int[90], 90, 0, models)).isNull();
+        assertThat(backtester.backtest(new int[] { 1, 2, 3 }, 3, 0, models)).isNull();
+    }
+}
@@ -0,0 +1,114 @@
+package com.team.sys_ai.forecast;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class ForecastModelTest {
+
+    private final WeightedAverageModel weightedAverage = new WeightedAverageModel();
+    private final HoltWintersModel holtWinters = new HoltWintersModel();
+    private final CrostonModel croston = new CrostonModel();
+
+    @Test
+    @DisplayName("Weighted average counts days without sales as zero")
+    void weightedAverage_perDayAverage() {
+        int[] ventes = new int[90];
+        // One sale of 90 units: 1 unit per day over the window, none in the last 30 days
+        ventes[0] = 90;
+
+        assertThat(weightedAverage.forecast(ventes, 90, 0, 30)).isCloseTo(30 * 0.7, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("Weighted average weights recent sales at 30%")
+    void weightedAverage_recentSales() {
+        int[] ventes = new int[90];
+        for (int i = 60; i < 90; i++) {
+            ventes[i] = 3;
+        }
+
+        // Overall 1/day, recent 3/day
+        assertThat(weightedAverage.forecast(ventes, 90, 0, 30)).isCloseTo((0.7 + 0.9) * 30, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("Holt-Winters reproduces a weekly pattern")
+    void holtWinters_weeklySeason() {
+        // Monday first; 20 units on Saturdays, 5 on other days
+        int[] ventes = new int[84];
+        for (int i = 0; i < ventes.length; i++) {
+            ventes[i] = i % 7 == 5 ? 20 : 5;
+        }
+
+        // 7 days starting on Monday: 6 x 5 + 20
+        assertThat(holtWinters.forecast(ventes, 84, 0, 7)).isCloseTo(50, within(1.0));
+        // Only the first two weeks are used: same pattern
+        assertThat(holtWinters.forecast(ventes, 14, 0, 7)).isCloseTo(50, within(1.0));
+    }
+
+    @Test
+    @DisplayName("Holt-Winters falls back to the mean with less than two weeks")
+    void holtWinters_shortHistory() {
+        int[] ventes = { 2, 4, 6 };
+
+        assertThat(holtWinters.forecast(ventes, 3, 0, 30)).isCloseTo(120, within(1e-9));
+        assertThat(holtWinters.forecast(ventes, 0, 0, 30)).isZero();
+    }
+
+    @Test
+    @DisplayName("Croston forecasts size / interval for intermittent demand")
+    void croston_intermittentDemand() {
+        // 8 units every 4 days
+        int[] ventes = new int[80];
+        for (int i = 3; i < ventes.length; i += 4) {
+            ventes[i] = 8;
+        }
+
+        assertThat(croston.forecast(ventes, 80, 0, 30)).isCloseTo((1 - 0.05) * 2 * 30, within(1e-6));
+        assertThat(croston.forecast(new int[30], 30, 0, 30)).isZero();
+    }
+
+    @Test
+    @DisplayName("Models are selected by category, with a default")
+    void selector_byCategory() {
+        ForecastModelSelector selector = new ForecastModelSelector(
+                List.of(weightedAverage, holtWinters, croston),
+                WeightedAverageModel.NAME, "Produits Laitiers:holt-winters, Entretien:croston");
+
+        assertThat(selector.forCategorie("Produits Laitiers")).isSameAs(holtWinters);
+        assertThat(selector.forCategorie("Entretien")).isSameAs(croston);
+        assertThat(selector.forCategorie("Boissons")).isSameAs(weightedAverage);
+        assertThat(selector.forCategorie(null)).isSameAs(weightedAverage);
+    }
+
+    @Test
+    @DisplayName("Unknown model names are rejected at startup")
+    void selector_unknownModel() {
+        assertThatThrownBy(() -> new ForecastModelSelector(List.of(weightedAverage), "arima", ""))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("arima");
+    }
+
+    @Test
+    @DisplayName("Sales history ignores days outside the window")
+    void salesHistory_window() {
+        SalesHistory history = new SalesHistory(LocalDate.of(2026, 1, 31), 31);
+        history.add(1L, LocalDate.of(2026, 1, 1), 5, 1);
+        history.add(1L, LocalDate.of(2026, 1, 31), 3, 2);
+        history.add(1L, LocalDate.of(2025, 12, 31), 7, 1);
+
+        assertThat(history.getQuantites(1L)[0]).isEqualTo(5);
+        assertThat(history.getQuantites(1L)[30]).isEqualTo(3);
+        assertThat(history.getNombreVentes(1L)).isEqualTo(3);
+        assertThat(history.getQuantites(2L)).hasSize(31).containsOnly(0);
+        // 2026-01-01 is a Thursday
+        assertThat(history.getPremierJourSemaine()).isEqualTo(3);
+    }
+}
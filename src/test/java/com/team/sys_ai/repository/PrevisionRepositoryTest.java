@@ -0,0 +1,83 @@
+package com.team.sys_ai.repository;
+
+import com.team.sys_ai.dto.PrevisionDTO;
+import com.team.sys_ai.entity.NiveauRisque;
+import com.team.sys_ai.entity.User;
+import com.team.sys_ai.service.PrevisionService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class PrevisionRepositoryTest {
+
+    @Autowired
+    private PrevisionRepository previsionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PrevisionService previsionService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("AI text of a prediction regenerated with other inputs is not saved")
+    void updateRecommandation_StaleInputs_NotUpdated() {
+        User admin = userRepository.findByLogin("admin").orElseThrow();
+        PrevisionDTO prevision = previsionService.generatePrevision(1L, 1L, admin);
+        NiveauRisque autreRisque = prevision.getNiveauRisque() == NiveauRisque.FAIBLE
+                ? NiveauRisque.CRITIQUE
+                : NiveauRisque.FAIBLE;
+
+        int quantite = prevision.getQuantitePrevue30Jours();
+        NiveauRisque risque = prevision.getNiveauRisque();
+        int quantiteRecommandee = prevision.getQuantiteRecommandee();
+
+        assertThat(update(prevision.getId(), quantite + 1, risque, quantiteRecommandee)).isZero();
+        assertThat(update(prevision.getId(), quantite, autreRisque, quantiteRecommandee)).isZero();
+        // Restock or threshold change: same sales and risk, other recommended quantity
+        assertThat(update(prevision.getId(), quantite, risque, quantiteRecommandee + 10)).isZero();
+        assertThat(update(prevision.getId(), quantite, risque, quantiteRecommandee)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Regenerating a warehouse keeps one latest prediction per stocked product, dated today")
+    void generatePrevisionsForEntrepot_OneLatestPerProduct() {
+        User admin = userRepository.findByLogin("admin").orElseThrow();
+        previsionService.generatePrevision(1L, 1L, admin);
+        List<PrevisionDTO> previsions = previsionService.generatePrevisionsForEntrepot(1L, admin);
+        previsionService.generatePrevisionsForEntrepot(1L, admin);
+
+        Integer stocks = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM stocks WHERE entrepot_id = 1", Integer.class);
+        List<LocalDate> latest = jdbcTemplate.queryForList(
+                "SELECT p.date_prevision FROM previsions p JOIN stocks s " +
+                        "ON s.produit_id = p.produit_id AND s.entrepot_id = p.entrepot_id " +
+                        "WHERE p.entrepot_id = 1 AND p.derniere = true", LocalDate.class);
+        assertThat(previsions).hasSize(stocks);
+        assertThat(latest).hasSize(stocks).containsOnly(LocalDate.now());
+    }
+
+    private int update(Long id, Integer quantitePrevue30Jours, NiveauRisque niveauRisque,
+            Integer quantiteRecommandee) {
+        Integer updated = new TransactionTemplate(transactionManager).execute(status -> previsionRepository
+                .updateRecommandation(id, quantitePrevue30Jours, niveauRisque, quantiteRecommandee,
+                        "Recommandation IA"));
+        return updated != null ? updated : 0;
+    }
+}
@@ -0,0 +1,159 @@
+package com.team.sys_ai.repository;
+
+import com.team.sys_ai.entity.NiveauRisque;
+import com.team.sys_ai.service.PrevisionRefreshService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Query plan regression suite: runs every read @Query of the history, daily rollup,
+ * stock and prediction repositories, then EXPLAINs the SQL Hibernate generated and fails
+ * if a large table is read with a full table scan.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.team.sys_ai.repository.QueryPlanTest$SqlCapture")
+class QueryPlanTest {
+
+    // Tables that grow with the sales volume; small reference tables may be scanned
+    private static final Set<String> LARGE_TABLES = Set.of("HISTORIQUE_VENTES", "VENTES_JOURNALIERES", "PREVISIONS");
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PrevisionRefreshService previsionRefreshService;
+
+    /**
+     * Plans depend on table statistics: fill the prediction table (sales are seeded
+     * at startup) and refresh the statistics before explaining.
+     */
+    @BeforeEach
+    void populateAndAnalyze() throws Exception {
+        previsionRefreshService.refreshAll();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @TestFactory
+    Stream<DynamicTest> noTableScanOnLargeTables() {
+        return Stream.of(HistoriqueVenteRepository.class, VenteJournaliereRepository.class,
+                        StockRepository.class, PrevisionRepository.class)
+                .flatMap(repositoryInterface -> Arrays.stream(repositoryInterface.getDeclaredMethods())
+                        .filter(method -> method.isAnnotationPresent(Query.class))
+                        .filter(method -> !method.isAnnotationPresent(Modifying.class))
+                        .filter(method -> method.getAnnotation(Query.class).value().stripLeading()
+                                .toUpperCase(Locale.ROOT).startsWith("SELECT"))
+                        .sorted(Comparator.comparing(Method::getName))
+                        .map(method -> DynamicTest.dynamicTest(
+                                repositoryInterface.getSimpleName() + "." + method.getName()
+                                        + Arrays.toString(method.getParameterTypes()),
+                                () -> assertIndexedPlan(applicationContext.getBean(repositoryInterface), method))));
+    }
+
+    private void assertIndexedPlan(Object repository, Method method) throws Exception {
+        SqlCapture.CAPTURED.clear();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> {
+            try {
+                Object result = method.invoke(repository, sampleArguments(method));
+                if (result instanceof Stream<?> stream) {
+                    stream.close();
+                }
+            } catch (ReflectiveOperationException e) {
+                fail(e);
+            }
+        });
+
+        List<String> statements = new ArrayList<>(SqlCapture.CAPTURED);
+        assertFalse(statements.isEmpty(), "No SQL captured for " + method.getName());
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                try (ResultSet plan = statement.executeQuery("EXPLAIN " + sql)) {
+                    plan.next();
+                    String text = plan.getString(1);
+                    for (String table : LARGE_TABLES) {
+                        if (text.toUpperCase(Locale.ROOT).contains(table + ".TABLESCAN")) {
+                            fail("Full scan of " + table + " in " + method.getName() + ":\n" + text);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private Object[] sampleArguments(Method method) {
+        return Arrays.stream(method.getParameterTypes())
+                .map(type -> {
+                    if (type == Long.class || type == long.class) {
+                        return 1L;
+                    } else if (type == Integer.class || type == int.class) {
+                        return 1;
+                    } else if (type == LocalDate.class) {
+                        return LocalDate.now().minusDays(30);
+                    } else if (type == Pageable.class) {
+                        return PageRequest.of(0, 10);
+                    } else if (type == Limit.class) {
+                        return Limit.of(10);
+                    } else if (type == NiveauRisque.class) {
+                        return NiveauRisque.ELEVE;
+                    } else if (type == Collection.class) {
+                        return List.of(1L, 2L);
+                    }
+                    throw new IllegalArgumentException("No sample value for " + type);
+                })
+                .toArray();
+    }
+
+    /**
+     * Records the SQL sent by Hibernate, so that it can be explained.
+     */
+    public static class SqlCapture implements StatementInspector {
+
+        static final List<String> CAPTURED = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            CAPTURED.add(sql);
+            return sql;
+        }
+    }
+}
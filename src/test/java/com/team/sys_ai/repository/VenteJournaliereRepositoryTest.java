@@ -0,0 +1,140 @@
+package com.team.sys_ai.repository;
+
+import com.team.sys_ai.entity.User;
+import com.team.sys_ai.entity.VenteJournaliere;
+import com.team.sys_ai.entity.VenteJournaliereId;
+import com.team.sys_ai.service.HistoriqueVenteService;
+import com.team.sys_ai.service.SalesSeriesStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Daily sales rollup upsert, on a day without sales in the seeded dataset.
+ */
+@SpringBootTest
+class VenteJournaliereRepositoryTest {
+
+    private static final int THREADS = 8;
+
+    // Inside the sales series window, before the seeded sales
+    private static final LocalDate DAY = LocalDate.now().minusDays(365);
+    private static final VenteJournaliereId ID = new VenteJournaliereId(1L, 1L, DAY);
+
+    @Autowired
+    private VenteJournaliereRepository venteJournaliereRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private HistoriqueVenteService historiqueVenteService;
+
+    @Autowired
+    private SalesSeriesStore salesSeriesStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM historique_ventes WHERE date_vente = ?", DAY);
+        jdbcTemplate.update("DELETE FROM ventes_journalieres WHERE date_vente = ?", DAY);
+        salesSeriesStore.reload();
+    }
+
+    @Test
+    @DisplayName("First sale creates the row of the day, later sales add to it")
+    void addSales() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> venteJournaliereRepository.addSales(1L, 1L, DAY, 5, 1));
+        transaction.executeWithoutResult(status -> venteJournaliereRepository.addSales(1L, 1L, DAY, 7, 2));
+
+        VenteJournaliere row = venteJournaliereRepository.findById(ID).orElseThrow();
+        assertThat(row.getQuantiteTotale()).isEqualTo(12);
+        assertThat(row.getNombreVentes()).isEqualTo(3);
+        assertThat(row.getJourSemaine()).isEqualTo(DAY.getDayOfWeek());
+        assertThat(row.getMois()).isEqualTo(DAY.getMonthValue());
+        assertThat(row.getAnnee()).isEqualTo(DAY.getYear());
+    }
+
+    @Test
+    @DisplayName("Concurrent first upserts of a day are all counted (atomic ON CONFLICT, PostgreSQL)")
+    void addSalesConcurrently() throws Exception {
+        // H2 runs the upsert as a MERGE, which fails on a key inserted concurrently
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        assumeTrue("PostgreSQL".equals(database), "Atomic upsert requires PostgreSQL");
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        runConcurrently(() -> {
+            transaction.executeWithoutResult(status -> venteJournaliereRepository.addSales(1L, 1L, DAY, 3, 1));
+            return null;
+        });
+
+        VenteJournaliere row = venteJournaliereRepository.findById(ID).orElseThrow();
+        assertThat(row.getQuantiteTotale()).isEqualTo(3 * THREADS);
+        assertThat(row.getNombreVentes()).isEqualTo(THREADS);
+    }
+
+    @Test
+    @DisplayName("Concurrent first sales of a day are all recorded in the rollup")
+    void recordSaleConcurrently() throws Exception {
+        User admin = userRepository.findByLogin("admin").orElseThrow();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> stockRepository.incrementQuantity(1L, 1L, 2 * THREADS));
+
+        runConcurrently(() -> historiqueVenteService.recordSale(1L, 1L, 2, DAY, admin));
+
+        VenteJournaliere row = venteJournaliereRepository.findById(ID).orElseThrow();
+        assertThat(row.getQuantiteTotale()).isEqualTo(2 * THREADS);
+        assertThat(row.getNombreVentes()).isEqualTo(THREADS);
+    }
+
+    /**
+     * Run the action on THREADS threads released at the same time, rethrowing the first failure.
+     */
+    private static void runConcurrently(Callable<?> action) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return action.call();
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
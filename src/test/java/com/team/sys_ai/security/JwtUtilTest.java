@@ -153,4 +153,33 @@ class JwtUtilTest {
         assertThat(expiration).isNotNull();
         assertThat(expiration).isAfter(new java.util.Date());
     }
+
+    @Test
+    @DisplayName("Should validate parsed claims against user details")
+    void validateToken_ParsedClaims_ReturnsTrueForSameUser() {
+        // Given
+        String token = jwtUtil.generateToken(userDetails);
+        UserDetails otherUser = new User("otheruser", "password", Collections.emptyList());
+
+        // When
+        var claims = jwtUtil.parseClaims(token);
+
+        // Then
+        assertThat(claims.getSubject()).isEqualTo("testuser");
+        assertThat(jwtUtil.validateToken(claims, userDetails)).isTrue();
+        assertThat(jwtUtil.validateToken(claims, otherUser)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should include user id and token version in claims")
+    void generateToken_WithUserIdAndVersion_IncludesInClaims() {
+        // When
+        String token = jwtUtil.generateToken(42L, "gestionnaire", "GESTIONNAIRE", 1L, 3);
+        var claims = jwtUtil.parseClaims(token);
+
+        // Then
+        assertThat(claims.get(JwtUtil.CLAIM_USER_ID, Long.class)).isEqualTo(42L);
+        assertThat(claims.get(JwtUtil.CLAIM_ENTREPOT_ID, Long.class)).isEqualTo(1L);
+        assertThat(jwtUtil.extractTokenVersion(claims)).isEqualTo(3);
+    }
 }
@@ -0,0 +1,60 @@
+package com.team.sys_ai.service;
+
+import com.team.sys_ai.entity.NiveauRisque;
+import com.team.sys_ai.service.AiRecommendationService.RecommendationRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class AiRecommendationCacheTest {
+
+    // Two products whose inputs fall into the same buckets
+    private final RecommendationRequest lait = new RecommendationRequest(
+            1L, "Lait demi-écrémé", 120, 300, 20, NiveauRisque.ELEVE, 350);
+    private final RecommendationRequest yaourt = new RecommendationRequest(
+            2L, "Yaourt nature", 122, 305, 20, NiveauRisque.ELEVE, 355);
+
+    @SuppressWarnings("unchecked")
+    private static AiRecommendationCache cache(boolean includeProduct) {
+        return new AiRecommendationCache(100, Duration.ofHours(1), 0.1, includeProduct,
+                mock(ObjectProvider.class));
+    }
+
+    /**
+     * Echo model: the text is the prompt, so the test sees what the model was told.
+     */
+    private static String generate(AiRecommendationCache cache, RecommendationRequest request) {
+        return cache.get(request, () -> AiRecommendationService.prompt(request, cache.isPerProduct()));
+    }
+
+    @Test
+    @DisplayName("Shared text of similar products does not name the product it was generated for")
+    void sharedKey_PromptWithoutProduct() {
+        AiRecommendationCache cache = cache(false);
+        assertThat(cache.keyOf(lait)).isEqualTo(cache.keyOf(yaourt));
+
+        String texteLait = generate(cache, lait);
+        String texteYaourt = generate(cache, yaourt);
+
+        assertThat(texteYaourt).isSameAs(texteLait);
+        assertThat(texteYaourt).doesNotContain(lait.produitNom()).doesNotContain(yaourt.produitNom());
+    }
+
+    @Test
+    @DisplayName("Per product cache keys the text on the product and names it in the prompt")
+    void perProductKey_PromptWithProduct() {
+        AiRecommendationCache cache = cache(true);
+        assertThat(cache.keyOf(lait)).isNotEqualTo(cache.keyOf(yaourt));
+
+        String texteLait = generate(cache, lait);
+        String texteYaourt = generate(cache, yaourt);
+
+        assertThat(texteLait).contains(lait.produitNom());
+        assertThat(texteYaourt).contains(yaourt.produitNom()).doesNotContain(lait.produitNom());
+    }
+}
@@ -0,0 +1,149 @@
+package com.team.sys_ai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.team.sys_ai.dto.HistoriqueVenteDTO;
+import com.team.sys_ai.entity.Entrepot;
+import com.team.sys_ai.entity.HistoriqueVente;
+import com.team.sys_ai.entity.Produit;
+import com.team.sys_ai.entity.User;
+import com.team.sys_ai.repository.EntrepotRepository;
+import com.team.sys_ai.repository.HistoriqueVenteRepository;
+import com.team.sys_ai.repository.ProduitRepository;
+import com.team.sys_ai.repository.UserRepository;
+import com.team.sys_ai.service.HistoriqueVenteExportService.ExportFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Streamed export of the sales of warehouse 1 on a day without sales in the seeded dataset.
+ */
+@SpringBootTest
+class HistoriqueVenteExportServiceTest {
+
+    private static final LocalDate DAY = LocalDate.now().minusDays(500);
+
+    // Needs quoting in CSV: separator and quotes
+    private static final String PRODUIT_NOM = "Lait \"bio\", 1L";
+
+    @Autowired
+    private HistoriqueVenteExportService historiqueVenteExportService;
+
+    @Autowired
+    private HistoriqueVenteRepository historiqueVenteRepository;
+
+    @Autowired
+    private ProduitRepository produitRepository;
+
+    @Autowired
+    private EntrepotRepository entrepotRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private String nomOriginal;
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        nomOriginal = jdbcTemplate.queryForObject("SELECT nom FROM produits WHERE id = 1", String.class);
+        jdbcTemplate.update("UPDATE produits SET nom = ? WHERE id = 1", PRODUIT_NOM);
+        ids = new TransactionTemplate(transactionManager).execute(status -> {
+            Entrepot entrepot = entrepotRepository.findById(1L).orElseThrow();
+            Produit produit1 = produitRepository.findById(1L).orElseThrow();
+            Produit produit2 = produitRepository.findById(2L).orElseThrow();
+            List<HistoriqueVente> ventes = historiqueVenteRepository.saveAll(List.of(
+                    vente(entrepot, produit1, 2), vente(entrepot, produit2, 5), vente(entrepot, produit1, 1)));
+            return ventes.stream().map(HistoriqueVente::getId).sorted().toList();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM historique_ventes WHERE date_vente = ?", DAY);
+        jdbcTemplate.update("UPDATE produits SET nom = ? WHERE id = 1", nomOriginal);
+    }
+
+    @Test
+    @DisplayName("CSV export: header, one line per sale in date and id order, quoted names")
+    void exportHistorique_Csv() throws IOException {
+        String[] lines = new String(export(ExportFormat.CSV, false), StandardCharsets.UTF_8).split("\n");
+
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).isEqualTo(
+                "id,produitId,produitNom,entrepotId,entrepotNom,dateVente,quantiteVendue,jourSemaine,mois,annee");
+        assertThat(lines[1]).startsWith(ids.get(0) + ",1,\"Lait \"\"bio\"\", 1L\",1,")
+                .endsWith("," + DAY + ",2," + DAY.getDayOfWeek() + "," + DAY.getMonthValue() + "," + DAY.getYear());
+        assertThat(lines[2]).startsWith(ids.get(1) + ",2,");
+        assertThat(lines[3]).startsWith(ids.get(2) + ",1,");
+    }
+
+    @Test
+    @DisplayName("NDJSON export: one JSON sale per line")
+    void exportHistorique_Ndjson() throws IOException {
+        String[] lines = new String(export(ExportFormat.NDJSON, false), StandardCharsets.UTF_8).split("\n");
+
+        List<HistoriqueVenteDTO> ventes = new ArrayList<>();
+        for (String line : lines) {
+            ventes.add(objectMapper.readValue(line, HistoriqueVenteDTO.class));
+        }
+        assertThat(ventes).extracting(HistoriqueVenteDTO::getId).containsExactlyElementsOf(ids);
+        assertThat(ventes).extracting(HistoriqueVenteDTO::getQuantiteVendue).containsExactly(2, 5, 1);
+        assertThat(ventes.get(0).getProduitNom()).isEqualTo(PRODUIT_NOM);
+        assertThat(ventes.get(0).getDateVente()).isEqualTo(DAY);
+    }
+
+    @Test
+    @DisplayName("Gzip export: a complete gzip stream of the same body")
+    void exportHistorique_Gzip() throws IOException {
+        byte[] compressed = export(ExportFormat.CSV, true);
+
+        byte[] body;
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            body = gzip.readAllBytes();
+        }
+        assertThat(body).isEqualTo(export(ExportFormat.CSV, false));
+    }
+
+    private byte[] export(ExportFormat format, boolean gzip) throws IOException {
+        User admin = userRepository.findByLogin("admin").orElseThrow();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        historiqueVenteExportService.exportHistorique(1L, DAY, DAY, format, gzip, admin).writeTo(output);
+        return output.toByteArray();
+    }
+
+    private static HistoriqueVente vente(Entrepot entrepot, Produit produit, int quantite) {
+        return HistoriqueVente.builder()
+                .entrepot(entrepot)
+                .produit(produit)
+                .dateVente(DAY)
+                .quantiteVendue(quantite)
+                .build();
+    }
+}
@@ -0,0 +1,191 @@
+package com.team.sys_ai.service;
+
+import com.team.sys_ai.dto.CursorResponse;
+import com.team.sys_ai.dto.HistoriqueVenteDTO;
+import com.team.sys_ai.dto.StockDTO;
+import com.team.sys_ai.entity.Entrepot;
+import com.team.sys_ai.entity.HistoriqueVente;
+import com.team.sys_ai.entity.Produit;
+import com.team.sys_ai.entity.User;
+import com.team.sys_ai.exception.BusinessValidationException;
+import com.team.sys_ai.repository.EntrepotRepository;
+import com.team.sys_ai.repository.HistoriqueVenteRepository;
+import com.team.sys_ai.repository.ProduitRepository;
+import com.team.sys_ai.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Keyset pages of the seeded dataset: cursor round trips, ties on the date, last page,
+ * invalid cursors and page sizes.
+ */
+@SpringBootTest
+class KeysetPaginationTest {
+
+    // After every seeded sale, so that these rows make the first page of the newest-first listing
+    private static final LocalDate DAY = LocalDate.now().plusDays(1);
+    private static final int SAME_DAY_SALES = 5;
+
+    @Autowired
+    private HistoriqueVenteService historiqueVenteService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private HistoriqueVenteRepository historiqueVenteRepository;
+
+    @Autowired
+    private ProduitRepository produitRepository;
+
+    @Autowired
+    private EntrepotRepository entrepotRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User admin;
+
+    // Ids of the sales of DAY, newest first
+    private List<Long> sameDayIds;
+
+    @BeforeEach
+    void setUp() {
+        admin = userRepository.findByLogin("admin").orElseThrow();
+        sameDayIds = new TransactionTemplate(transactionManager).execute(status -> {
+            Entrepot entrepot = entrepotRepository.findById(1L).orElseThrow();
+            Produit produit = produitRepository.findById(1L).orElseThrow();
+            List<HistoriqueVente> ventes = IntStream.range(0, SAME_DAY_SALES)
+                    .mapToObj(i -> HistoriqueVente.builder()
+                            .entrepot(entrepot)
+                            .produit(produit)
+                            .dateVente(DAY)
+                            .quantiteVendue(1)
+                            .build())
+                    .toList();
+            List<Long> ids = new ArrayList<>(historiqueVenteRepository.saveAll(ventes).stream()
+                    .map(HistoriqueVente::getId).toList());
+            Collections.sort(ids, Collections.reverseOrder());
+            return ids;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM historique_ventes WHERE date_vente = ?", DAY);
+    }
+
+    @Test
+    @DisplayName("Sales sharing a date are paged in id order, without gaps or duplicates")
+    void historique_TiesOnDate() {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        for (int page = 0; page < 3; page++) {
+            CursorResponse<HistoriqueVenteDTO> response = historiqueVenteService.getHistoriqueByEntrepot(
+                    1L, admin, cursor, 2, false);
+            assertThat(response.getContent()).hasSize(2);
+            assertThat(response.isHasNext()).isTrue();
+            response.getContent().forEach(vente -> ids.add(vente.getId()));
+            cursor = response.getNextCursor();
+        }
+
+        assertThat(ids.subList(0, SAME_DAY_SALES)).containsExactlyElementsOf(sameDayIds);
+        assertThat(ids).doesNotHaveDuplicates();
+        // The page after the ties continues with the seeded sales, older than DAY
+        assertThat(historiqueVenteRepository.findById(ids.get(SAME_DAY_SALES)).orElseThrow().getDateVente())
+                .isBefore(DAY);
+    }
+
+    @Test
+    @DisplayName("Paging through every stock of a warehouse ends on a page without next cursor")
+    void stocks_LastPage() {
+        List<Long> stockIds = jdbcTemplate.queryForList(
+                "SELECT id FROM stocks WHERE entrepot_id = 1 ORDER BY id", Long.class);
+        int pageSize = 7;
+
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        CursorResponse<StockDTO> response;
+        do {
+            response = stockService.getStocksByEntrepot(1L, admin, cursor, pageSize, false);
+            response.getContent().forEach(stock -> ids.add(stock.getId()));
+            cursor = response.getNextCursor();
+        } while (response.isHasNext());
+
+        assertThat(ids).containsExactlyElementsOf(stockIds);
+        assertThat(response.getNextCursor()).isNull();
+        assertThat(response.getContent()).hasSize(stockIds.size() % pageSize == 0
+                ? pageSize : stockIds.size() % pageSize);
+
+        // A page holding exactly the remaining rows has no next page either
+        CursorResponse<StockDTO> all = stockService.getStocksByEntrepot(1L, admin, null, stockIds.size(), true);
+        assertThat(all.isHasNext()).isFalse();
+        assertThat(all.getNextCursor()).isNull();
+        assertThat(all.getTotalElements()).isEqualTo(stockIds.size());
+    }
+
+    @Test
+    @DisplayName("Blank cursor starts from the first page")
+    void blankCursor_FirstPage() {
+        CursorResponse<StockDTO> first = stockService.getStocksByEntrepot(1L, admin, null, 5, false);
+        CursorResponse<StockDTO> blank = stockService.getStocksByEntrepot(1L, admin, " ", 5, false);
+
+        assertThat(blank.getContent()).extracting(StockDTO::getId)
+                .containsExactlyElementsOf(first.getContent().stream().map(StockDTO::getId).toList());
+        assertThat(first.getTotalElements()).isNull();
+    }
+
+    @Test
+    @DisplayName("Tampered cursors are rejected")
+    void tamperedCursor_Rejected() {
+        for (String cursor : List.of("%%%", token("garbage"), token("2024-13-01:5"), token("2024-01-01:x"),
+                token(":5"))) {
+            assertThatThrownBy(() -> historiqueVenteService.getHistoriqueByEntrepot(1L, admin, cursor, 20, false))
+                    .as(cursor)
+                    .isInstanceOf(BusinessValidationException.class)
+                    .hasMessage("Curseur de pagination invalide");
+        }
+        assertThatThrownBy(() -> stockService.getStocksByEntrepot(1L, admin, token("abc"), 20, false))
+                .isInstanceOf(BusinessValidationException.class);
+    }
+
+    @Test
+    @DisplayName("Page size outside 1..500 is rejected")
+    void pageSize_OutOfRange() {
+        for (int size : new int[] { 0, -1, KeysetCursor.MAX_PAGE_SIZE + 1 }) {
+            assertThatThrownBy(() -> stockService.getStocksByEntrepot(1L, admin, null, size, false))
+                    .isInstanceOf(BusinessValidationException.class)
+                    .hasMessageContaining("taille de page");
+        }
+        assertThat(stockService.getStocksByEntrepot(1L, admin, null, KeysetCursor.MAX_PAGE_SIZE, false)
+                .getPageSize()).isEqualTo(KeysetCursor.MAX_PAGE_SIZE);
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
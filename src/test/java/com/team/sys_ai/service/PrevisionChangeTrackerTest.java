@@ -0,0 +1,70 @@
+package com.team.sys_ai.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrevisionChangeTrackerTest {
+
+    private final PrevisionChangeTracker tracker = new PrevisionChangeTracker();
+
+    @Test
+    @DisplayName("Drain groups the marked pairs by warehouse and empties the tracker")
+    void drain_GroupsByEntrepot() {
+        tracker.markChanged(1L, 1L);
+        tracker.markChanged(2L, 1L);
+        tracker.markChanged(1L, 2L);
+        tracker.markChanged(2L, 1L);
+
+        assertThat(tracker.size()).isEqualTo(3);
+        assertThat(tracker.drain()).isEqualTo(Map.of(1L, Set.of(1L, 2L), 2L, Set.of(1L)));
+        assertThat(tracker.size()).isZero();
+        assertThat(tracker.drain()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Ids up to 32 bits survive the packed key")
+    void drain_LargeIds() {
+        long produitId = 0xFFFFFFFFL;
+        long entrepotId = 0xFFFFFFFEL;
+        tracker.markChanged(produitId, entrepotId);
+        tracker.markChanged(1L, entrepotId);
+        tracker.markChanged(produitId, 1L);
+
+        assertThat(tracker.drain()).isEqualTo(Map.of(
+                entrepotId, Set.of(1L, produitId),
+                1L, Set.of(produitId)));
+    }
+
+    @Test
+    @DisplayName("Pairs marked inside a transaction are only kept after commit")
+    void markChanged_AfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tracker.markChanged(1L, 1L);
+            assertThat(tracker.size()).isZero();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(tracker.drain()).isEqualTo(Map.of(1L, Set.of(1L)));
+    }
+
+    @Test
+    @DisplayName("Products marked again after a failed refresh are drained with the new changes")
+    void markProductsChanged_MergedWithNewChanges() {
+        tracker.markChanged(3L, 1L);
+        tracker.markProductsChanged(1L, List.of(1L, 3L));
+        tracker.markProductsChanged(2L, Set.of(5L));
+
+        assertThat(tracker.drain()).isEqualTo(Map.of(1L, Set.of(1L, 3L), 2L, Set.of(5L)));
+    }
+}
@@ -0,0 +1,60 @@
+package com.team.sys_ai.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Startup upgrade of a previsions table written before predictions were upserted.
+ */
+@SpringBootTest
+class PrevisionMaintenanceServiceTest {
+
+    // Before every seeded prediction
+    private static final LocalDate DAY = LocalDate.now().minusDays(600);
+
+    // Far above the ids handed out by previsions_seq
+    private static final long ID = 900_000_000L;
+
+    @Autowired
+    private PrevisionMaintenanceService previsionMaintenanceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM previsions WHERE date_prevision = ?", DAY);
+    }
+
+    @Test
+    @DisplayName("Missing unique constraint: same-day duplicates removed, then the constraint added")
+    void materializeIfMissing_AddsUniqueConstraint() {
+        jdbcTemplate.execute("ALTER TABLE previsions DROP CONSTRAINT uk_prevision_produit_entrepot_date");
+        insert(ID);
+        insert(ID + 1);
+
+        previsionMaintenanceService.materializeIfMissing();
+
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM previsions WHERE date_prevision = ?", Long.class, DAY);
+        assertThat(ids).containsExactly(ID + 1);
+        assertThatThrownBy(() -> insert(ID + 2)).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private void insert(long id) {
+        jdbcTemplate.update("INSERT INTO previsions (id, produit_id, entrepot_id, date_prevision, "
+                + "quantite_prevue_30_jours, niveau_confiance, recommandation, derniere) "
+                + "VALUES (?, 1, 1, ?, 10, 0.5, 'Test', false)", id, DAY);
+    }
+}
@@ -0,0 +1,123 @@
+package com.team.sys_ai.service;
+
+import com.team.sys_ai.entity.Entrepot;
+import com.team.sys_ai.repository.EntrepotRepository;
+import com.team.sys_ai.repository.StockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PrevisionRefreshServiceTest {
+
+    @Mock
+    private EntrepotRepository entrepotRepository;
+
+    @Mock
+    private StockRepository stockRepository;
+
+    @Mock
+    private PrevisionService previsionService;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private final PrevisionChangeTracker tracker = new PrevisionChangeTracker();
+    private ThreadPoolTaskExecutor executor;
+    private PrevisionRefreshService service;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.initialize();
+        service = new PrevisionRefreshService(entrepotRepository, stockRepository, previsionService, tracker,
+                executor, taskScheduler, 500);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Full refresh: the drained changes of a failed warehouse are marked again")
+    void refreshAll_FailedEntrepot_MarkedAgain() {
+        tracker.markChanged(1L, 1L);
+        tracker.markChanged(2L, 1L);
+        tracker.markChanged(1L, 2L);
+        when(entrepotRepository.findByActifTrue()).thenReturn(List.of(entrepot(1L), entrepot(2L)));
+        when(stockRepository.findByEntrepotIdWithProduit(1L)).thenThrow(new IllegalStateException("boom"));
+        when(stockRepository.findByEntrepotIdWithProduit(2L)).thenReturn(List.of());
+
+        service.refreshAll();
+
+        assertThat(service.getStatus().getEntrepotsEnEchec()).isEqualTo(1);
+        assertThat(tracker.drain()).isEqualTo(Map.of(1L, Set.of(1L, 2L)));
+    }
+
+    @Test
+    @DisplayName("Incremental refresh: the changes of a failed warehouse are marked again")
+    void refreshChanged_FailedEntrepot_MarkedAgain() {
+        tracker.markChanged(1L, 1L);
+        tracker.markChanged(1L, 2L);
+        when(entrepotRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(entrepot(1L), entrepot(2L)));
+        when(stockRepository.findByEntrepotIdAndProduitIdsWithProduit(eq(1L), anyCollection()))
+                .thenThrow(new IllegalStateException("boom"));
+        when(stockRepository.findByEntrepotIdAndProduitIdsWithProduit(eq(2L), anyCollection()))
+                .thenReturn(List.of());
+
+        service.refreshChanged();
+
+        assertThat(tracker.drain()).isEqualTo(Map.of(1L, Set.of(1L)));
+    }
+
+    @Test
+    @DisplayName("Incremental refresh: stocks of many changed products are read in bounded IN lists")
+    @SuppressWarnings("unchecked")
+    void refreshChanged_ManyProducts_Batched() {
+        int count = PrevisionService.IN_BATCH_SIZE * 2 + 1;
+        tracker.markProductsChanged(1L, LongStream.rangeClosed(1, count).boxed().toList());
+        when(entrepotRepository.findAllById(Set.of(1L))).thenReturn(List.of(entrepot(1L)));
+        when(stockRepository.findByEntrepotIdAndProduitIdsWithProduit(anyLong(), anyCollection()))
+                .thenReturn(List.of());
+
+        service.refreshChanged();
+
+        ArgumentCaptor<Collection<Long>> batches = ArgumentCaptor.forClass(Collection.class);
+        verify(stockRepository, times(3)).findByEntrepotIdAndProduitIdsWithProduit(eq(1L), batches.capture());
+        assertThat(batches.getAllValues()).allSatisfy(batch ->
+                assertThat(batch).hasSizeLessThanOrEqualTo(PrevisionService.IN_BATCH_SIZE));
+        assertThat(batches.getAllValues().stream().flatMap(Collection::stream).collect(Collectors.toSet()))
+                .hasSize(count);
+        assertThat(tracker.size()).isZero();
+    }
+
+    private static Entrepot entrepot(Long id) {
+        Entrepot entrepot = new Entrepot();
+        entrepot.setId(id);
+        entrepot.setActif(true);
+        return entrepot;
+    }
+}
@@ -0,0 +1,152 @@
+package com.team.sys_ai.service;
+
+import com.team.sys_ai.config.SqlStatementAssertions;
+import com.team.sys_ai.entity.User;
+import com.team.sys_ai.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exact SQL statement counts of the read methods behind the controllers, on the seeded
+ * dataset: a page of DTOs must not load its products or warehouses one by one.
+ */
+@SpringBootTest
+class QueryCountTest {
+
+    @Autowired
+    private SqlStatementAssertions sqlStatements;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private HistoriqueVenteService historiqueVenteService;
+
+    @Autowired
+    private PrevisionService previsionService;
+
+    @Autowired
+    private ProduitService produitService;
+
+    @Autowired
+    private EntrepotService entrepotService;
+
+    @Autowired
+    private UserService userService;
+
+    private User admin;
+
+    @BeforeEach
+    void setUp() {
+        admin = userRepository.findByLogin("admin").orElseThrow();
+    }
+
+    @Test
+    @DisplayName("Page of stocks: page and count queries")
+    void stocksPage() throws Throwable {
+        var page = sqlStatements.assertStatementCount(2,
+                () -> stockService.getStocksByEntrepot(1L, admin, PageRequest.of(0, 20)));
+        assertThat(page.getContent()).hasSize(20);
+    }
+
+    @Test
+    @DisplayName("Keyset page of stocks: one query, the count only on request")
+    void stocksScroll() throws Throwable {
+        var page = sqlStatements.assertStatementCount(1,
+                () -> stockService.getStocksByEntrepot(1L, admin, null, 20, false));
+        assertThat(page.getContent()).hasSize(20);
+        assertThat(page.getTotalElements()).isNull();
+
+        var next = sqlStatements.assertStatementCount(2,
+                () -> stockService.getStocksByEntrepot(1L, admin, page.getNextCursor(), 20, true));
+        assertThat(next.getTotalElements()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Stocks at alert of all warehouses")
+    void stocksAtAlert() throws Throwable {
+        sqlStatements.assertStatementCount(2, () -> stockService.getAllStocksAtAlert(PageRequest.of(0, 20)));
+    }
+
+    @Test
+    @DisplayName("Page of sales history: page and count queries")
+    void historiquePage() throws Throwable {
+        var page = sqlStatements.assertStatementCount(2, () -> historiqueVenteService.getHistoriqueByEntrepot(
+                1L, admin, PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "dateVente"))));
+        assertThat(page.getContent()).hasSize(20);
+    }
+
+    @Test
+    @DisplayName("Keyset page of sales history: one query, the count only on request")
+    void historiqueScroll() throws Throwable {
+        var page = sqlStatements.assertStatementCount(1,
+                () -> historiqueVenteService.getHistoriqueByEntrepot(1L, admin, null, 20, false));
+        assertThat(page.getContent()).hasSize(20);
+        assertThat(page.getTotalElements()).isNull();
+
+        var next = sqlStatements.assertStatementCount(2,
+                () -> historiqueVenteService.getHistoriqueByEntrepot(1L, admin, page.getNextCursor(), 20, true));
+        assertThat(next.getTotalElements()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Page of predictions of a warehouse")
+    void previsionsPage() throws Throwable {
+        previsionService.generatePrevisionsForEntrepot(1L, admin);
+        var page = sqlStatements.assertStatementCount(2, () -> previsionService.getPrevisionsByEntrepot(
+                1L, admin, PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "datePrevision"))));
+        assertThat(page.getContent()).isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("Keyset page of predictions: one query, the count only on request")
+    void previsionsScroll() throws Throwable {
+        previsionService.generatePrevisionsForEntrepot(1L, admin);
+        var page = sqlStatements.assertStatementCount(1,
+                () -> previsionService.getPrevisionsByEntrepot(1L, admin, null, 20, false));
+        assertThat(page.getContent()).isNotEmpty();
+        assertThat(page.getTotalElements()).isNull();
+
+        var counted = sqlStatements.assertStatementCount(2,
+                () -> previsionService.getPrevisionsByEntrepot(1L, admin, null, 20, true));
+        assertThat(counted.getTotalElements()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("High-risk predictions of all warehouses")
+    void highRiskPrevisions() throws Throwable {
+        previsionService.generatePrevisionsForEntrepot(1L, admin);
+        sqlStatements.assertStatementCount(2, () -> previsionService.getAllHighRiskPrevisions(PageRequest.of(0, 20)));
+    }
+
+    @Test
+    @DisplayName("Page of products and categories")
+    void produits() throws Throwable {
+        sqlStatements.assertStatementCount(2, () -> produitService.getAllProduits(PageRequest.of(0, 20)));
+        sqlStatements.assertStatementCount(1, () -> produitService.getAllCategories());
+    }
+
+    @Test
+    @DisplayName("Warehouses with their statistics")
+    void entrepots() throws Throwable {
+        sqlStatements.assertStatementCount(1, () -> entrepotService.getAccessibleEntrepots(admin));
+        sqlStatements.assertStatementCount(3, () -> entrepotService.getEntrepotWithStats(1L));
+    }
+
+    @Test
+    @DisplayName("Users with their assigned warehouse")
+    void users() throws Throwable {
+        var users = sqlStatements.assertStatementCount(1, () -> userService.getActiveUsers());
+        assertThat(users).isNotEmpty();
+    }
+}
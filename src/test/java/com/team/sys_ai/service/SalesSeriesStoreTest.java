@@ -0,0 +1,77 @@
+package com.team.sys_ai.service;
+
+import com.team.sys_ai.repository.VenteJournaliereRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SalesSeriesStoreTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Mock
+    private VenteJournaliereRepository venteJournaliereRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // Rollup rows returned by each reload: {produitId, entrepotId, dateVente, quantite, nombreVentes}
+    private final List<Object[]> rollup = new ArrayList<>();
+
+    private SalesSeriesStore store;
+
+    @BeforeEach
+    void setUp() {
+        when(venteJournaliereRepository.streamSince(any())).thenAnswer(invocation -> rollup.stream());
+        store = new SalesSeriesStore(venteJournaliereRepository, transactionManager, true, 30);
+        store.reload();
+    }
+
+    @Test
+    @DisplayName("Sale dated far after the window is kept out of the series and sent to the database")
+    void recordSales_FarFuture_NotStored() {
+        LocalDate farFuture = LocalDate.of(9999, 12, 31);
+
+        store.recordSales(1L, 1L, farFuture, 5, 1);
+        store.recordSales(1L, 1L, TODAY, 2, 1);
+
+        assertThat(store.getTotalQuantitySold(1L, 1L, TODAY, TODAY)).isEqualTo(2);
+        assertThat(store.covers(TODAY.minusDays(7), TODAY)).isTrue();
+        assertThat(store.covers(TODAY, farFuture)).isFalse();
+        assertThat(store.covers(TODAY)).isFalse();
+        assertThat(store.coversAll()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Sale committed while the store reloads is counted once")
+    void recordSales_ReloadBeforeCommit_CountedOnce() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            store.recordSales(1L, 1L, TODAY, 3, 1);
+            // The sale commits, then a reload reads it before the after commit callback runs
+            rollup.add(new Object[] { 1L, 1L, TODAY, 3, 1 });
+            store.reload();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(store.getTotalQuantitySold(1L, 1L, TODAY, TODAY)).isEqualTo(3);
+    }
+}
@@ -27,6 +27,7 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -44,6 +45,9 @@ class StockServiceTest {
     @Mock
     private StockMapper stockMapper;
 
+    @Mock
+    private PrevisionChangeTracker previsionChangeTracker;
+
     @InjectMocks
     private StockService stockService;
 
@@ -133,7 +137,26 @@ class StockServiceTest {
     @DisplayName("Should add quantity to existing stock")
     void addQuantity_ExistingStock_IncreasesQuantity() {
 
+        when(stockRepository.incrementQuantity(1L, 1L, 20)).thenReturn(1);
         when(stockRepository.findByEntrepotIdAndProduitId(1L, 1L)).thenReturn(Optional.of(stock));
+        when(stockMapper.toDTO(any(Stock.class))).thenReturn(stockDTO);
+
+        // When
+        StockDTO result = stockService.addQuantity(1L, 1L, 20, adminUser);
+
+        // Then
+        assertThat(result).isNotNull();
+        verify(stockRepository).incrementQuantity(1L, 1L, 20);
+        verify(stockRepository, never()).save(any(Stock.class));
+    }
+
+    @Test
+    @DisplayName("Should create stock line when adding quantity to non-existent stock")
+    void addQuantity_NewStock_CreatesStock() {
+        // Given
+        when(stockRepository.incrementQuantity(1L, 1L, 20)).thenReturn(0);
+        when(entrepotRepository.findById(1L)).thenReturn(Optional.of(entrepot));
+        when(produitRepository.findById(1L)).thenReturn(Optional.of(produit));
         when(stockRepository.save(any(Stock.class))).thenReturn(stock);
         when(stockMapper.toDTO(any(Stock.class))).thenReturn(stockDTO);
 
@@ -142,7 +165,7 @@ class StockServiceTest {
 
         // Then
         assertThat(result).isNotNull();
-        verify(stockRepository).save(argThat(s -> s.getQuantiteDisponible() == 70));
+        verify(stockRepository).save(argThat(s -> s.getQuantiteDisponible() == 20));
     }
 
     @Test
@@ -158,8 +181,8 @@ class StockServiceTest {
     @DisplayName("Should remove quantity from stock")
     void removeQuantity_SufficientStock_DecreasesQuantity() {
         // Given
+        when(stockRepository.decrementQuantity(1L, 1L, 20)).thenReturn(1);
         when(stockRepository.findByEntrepotIdAndProduitId(1L, 1L)).thenReturn(Optional.of(stock));
-        when(stockRepository.save(any(Stock.class))).thenReturn(stock);
         when(stockMapper.toDTO(any(Stock.class))).thenReturn(stockDTO);
 
         // When
@@ -167,19 +190,37 @@ class StockServiceTest {
 
         // Then
         assertThat(result).isNotNull();
-        verify(stockRepository).save(argThat(s -> s.getQuantiteDisponible() == 30));
+        verify(stockRepository).decrementQuantity(1L, 1L, 20);
+        verify(stockRepository, never()).save(any(Stock.class));
+        verify(previsionChangeTracker).markChanged(1L, 1L);
     }
 
     @Test
     @DisplayName("Should throw exception when removing more than available")
     void removeQuantity_InsufficientStock_ThrowsException() {
         // Given
+        when(stockRepository.decrementQuantity(1L, 1L, 100)).thenReturn(0);
         when(stockRepository.findByEntrepotIdAndProduitId(1L, 1L)).thenReturn(Optional.of(stock));
 
         // When/Then
         assertThatThrownBy(() -> stockService.removeQuantity(1L, 1L, 100, adminUser))
                 .isInstanceOf(BusinessValidationException.class)
                 .hasMessageContaining("insuffisant");
+        verify(previsionChangeTracker, never()).markChanged(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should return new quantity after atomic decrement")
+    void decrementQuantity_SufficientStock_ReturnsNewQuantity() {
+        // Given
+        when(stockRepository.decrementQuantity(1L, 1L, 20)).thenReturn(1);
+        when(stockRepository.findQuantity(1L, 1L)).thenReturn(Optional.of(30));
+
+        // When
+        int result = stockService.decrementQuantity(1L, 1L, 20);
+
+        // Then
+        assertThat(result).isEqualTo(30);
     }
 
     @Test